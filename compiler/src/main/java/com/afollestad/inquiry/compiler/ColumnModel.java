@@ -0,0 +1,44 @@
+package com.afollestad.inquiry.compiler;
+
+import javax.lang.model.type.TypeMirror;
+
+/** @author Aidan Follestad (afollestad) */
+final class ColumnModel {
+
+  enum SetterKind {
+    FIELD,
+    METHOD,
+    BUILDER
+  }
+
+  final String name;
+  final TypeMirror type;
+  final ValueType valueType;
+  final boolean autoIncrement;
+  /** A field name, or a getter method call such as {@code name()}. */
+  final String getter;
+
+  final SetterKind setterKind;
+  final String setterName;
+
+  ColumnModel(
+      String name,
+      TypeMirror type,
+      ValueType valueType,
+      boolean autoIncrement,
+      String getter,
+      SetterKind setterKind,
+      String setterName) {
+    this.name = name;
+    this.type = type;
+    this.valueType = valueType;
+    this.autoIncrement = autoIncrement;
+    this.getter = getter;
+    this.setterKind = setterKind;
+    this.setterName = setterName;
+  }
+
+  boolean isPrimitive() {
+    return type.getKind().isPrimitive();
+  }
+}
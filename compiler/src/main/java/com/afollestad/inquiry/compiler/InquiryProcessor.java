@@ -0,0 +1,65 @@
+package com.afollestad.inquiry.compiler;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code <Row>_InquiryMapper} for every {@code @Table} class it can fully handle.
+ * Inquiry picks these up at runtime and skips reflection for them; other rows are reported with a
+ * note and keep using reflection.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class InquiryProcessor extends AbstractProcessor {
+
+  private static final String TABLE = "com.afollestad.inquiry.annotations.Table";
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(TABLE);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    final TypeElement tableAnnotation = processingEnv.getElementUtils().getTypeElement(TABLE);
+    if (tableAnnotation == null) return false;
+
+    for (Element element : roundEnv.getElementsAnnotatedWith(tableAnnotation)) {
+      if (element.getKind() != ElementKind.CLASS) continue;
+      final TypeElement rowElement = (TypeElement) element;
+      try {
+        final RowModel model =
+            new RowModel(processingEnv.getElementUtils(), processingEnv.getTypeUtils(), rowElement);
+        MapperGenerator.generate(model).writeTo(processingEnv.getFiler());
+      } catch (RowModel.UnsupportedRowException e) {
+        processingEnv
+            .getMessager()
+            .printMessage(
+                Diagnostic.Kind.NOTE,
+                "Inquiry will use reflection for " + rowElement + ": " + e.getMessage(),
+                rowElement);
+      } catch (IOException e) {
+        processingEnv
+            .getMessager()
+            .printMessage(
+                Diagnostic.Kind.ERROR,
+                "Unable to write the mapper for " + rowElement + ": " + e.getMessage(),
+                rowElement);
+      }
+    }
+    return false;
+  }
+}
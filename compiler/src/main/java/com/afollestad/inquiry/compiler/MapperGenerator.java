@@ -0,0 +1,138 @@
+package com.afollestad.inquiry.compiler;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import javax.lang.model.element.Modifier;
+
+/** @author Aidan Follestad (afollestad) */
+final class MapperGenerator {
+
+  private static final ClassName CURSOR = ClassName.get("android.database", "Cursor");
+  private static final ClassName INQUIRY_MAPPER =
+      ClassName.get("com.afollestad.inquiry", "InquiryMapper");
+  private static final ClassName ROW_VALUES = ClassName.get("com.afollestad.inquiry", "RowValues");
+  private static final TypeName STRING_ARRAY = ArrayTypeName.of(String.class);
+
+  private MapperGenerator() {}
+
+  static JavaFile generate(RowModel model) {
+    final ClassName mapperClass = model.mapperClass();
+    final TypeSpec mapper =
+        TypeSpec.classBuilder(mapperClass)
+            .addJavadoc("Generated by the Inquiry annotation processor, do not modify.\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addOriginatingElement(model.rowElement)
+            .addSuperinterface(ParameterizedTypeName.get(INQUIRY_MAPPER, model.rowClass))
+            .addField(columnsField(model))
+            .addMethod(
+                MethodSpec.methodBuilder("columns")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(STRING_ARRAY)
+                    .addStatement("return COLUMNS.clone()")
+                    .build())
+            .addMethod(readMethod(model))
+            .addMethod(writeMethod(model))
+            .build();
+    return JavaFile.builder(mapperClass.packageName(), mapper).skipJavaLangImports(true).build();
+  }
+
+  private static FieldSpec columnsField(RowModel model) {
+    final CodeBlock.Builder names = CodeBlock.builder().add("{");
+    for (int i = 0; i < model.columns.size(); i++) {
+      if (i > 0) names.add(", ");
+      names.add("$S", model.columns.get(i).name);
+    }
+    return FieldSpec.builder(STRING_ARRAY, "COLUMNS")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer(names.add("}").build())
+        .build();
+  }
+
+  private static MethodSpec readMethod(RowModel model) {
+    final MethodSpec.Builder method =
+        MethodSpec.methodBuilder("read")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(model.rowClass)
+            .addParameter(CURSOR, "cursor")
+            .addParameter(int[].class, "columnIndexes");
+
+    final String target = model.builderClass != null ? "builder" : "row";
+    method.addStatement(
+        "$T $L = new $T()",
+        model.builderClass != null ? model.builderClass : model.rowClass,
+        target,
+        model.builderClass != null ? model.builderClass : model.rowClass);
+    method.addStatement("int index");
+
+    for (int i = 0; i < model.columns.size(); i++) {
+      final ColumnModel column = model.columns.get(i);
+      method.addStatement("index = columnIndexes[$L]", i);
+      final CodeBlock value = readValue(column.valueType);
+      if (column.setterKind == ColumnModel.SetterKind.FIELD) {
+        method.addStatement("if (index != -1) $L.$L = $L", target, column.setterName, value);
+      } else {
+        method.addStatement("if (index != -1) $L.$L($L)", target, column.setterName, value);
+      }
+    }
+
+    if (model.builderClass != null) method.addStatement("return builder.build()");
+    else method.addStatement("return row");
+    return method.build();
+  }
+
+  private static CodeBlock readValue(ValueType valueType) {
+    switch (valueType) {
+      case BOOLEAN:
+        return CodeBlock.of("!cursor.isNull(index) && cursor.getInt(index) == 1");
+      case STRING:
+      case BLOB:
+        return CodeBlock.of("cursor.$L(index)", valueType.cursorGetter);
+      default:
+        return CodeBlock.of(
+            "cursor.isNull(index) ? $L : cursor.$L(index)",
+            valueType.nullValue,
+            valueType.cursorGetter);
+    }
+  }
+
+  private static MethodSpec writeMethod(RowModel model) {
+    final MethodSpec.Builder method =
+        MethodSpec.methodBuilder("write")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(model.rowClass, "row")
+            .addParameter(ROW_VALUES, "values");
+
+    for (int i = 0; i < model.columns.size(); i++) {
+      final ColumnModel column = model.columns.get(i);
+      final String local = "value" + i;
+      method.addStatement("$T $L = row.$L", TypeName.get(column.type), local, column.getter);
+
+      final CodeBlock stored =
+          column.valueType == ValueType.BOOLEAN
+              ? CodeBlock.of("$L ? 1 : 0", local)
+              : CodeBlock.of("$L", local);
+      String condition = null;
+      if (!column.isPrimitive()) condition = local + " != null";
+      if (column.autoIncrement) {
+        condition = (condition != null ? condition + " && " : "") + local + " > 0";
+      }
+
+      if (condition == null) {
+        method.addStatement("values.put($S, $L)", column.name, stored);
+      } else {
+        method.addStatement("if ($L) values.put($S, $L)", condition, column.name, stored);
+      }
+    }
+    return method.build();
+  }
+}
@@ -0,0 +1,299 @@
+package com.afollestad.inquiry.compiler;
+
+import com.squareup.javapoet.ClassName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Describes a row class the same way Inquiry's FieldDelegate discovers it at runtime, so the
+ * generated mapper behaves like the reflection path. Throws {@link UnsupportedRowException} for
+ * rows the generated code can't handle; those keep using reflection.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+final class RowModel {
+
+  private static final String COLUMN = "com.afollestad.inquiry.annotations.Column";
+  private static final String FOREIGN_KEY = "com.afollestad.inquiry.annotations.ForeignKey";
+  private static final String ROW_BUILDER = "com.afollestad.inquiry.annotations.RowBuilder";
+
+  static final class UnsupportedRowException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedRowException(String message) {
+      super(message);
+    }
+  }
+
+  final TypeElement rowElement;
+  final ClassName rowClass;
+  final ClassName builderClass;
+  final List<ColumnModel> columns;
+
+  private final Elements elements;
+  private final Types types;
+  private final String packageName;
+
+  RowModel(Elements elements, Types types, TypeElement rowElement) throws UnsupportedRowException {
+    this.elements = elements;
+    this.types = types;
+    this.rowElement = rowElement;
+    this.rowClass = ClassName.get(rowElement);
+    this.packageName = elements.getPackageOf(rowElement).getQualifiedName().toString();
+    this.columns = new ArrayList<>();
+
+    checkAccessible(rowElement);
+    TypeElement builderElement = findBuilder(rowElement);
+    if (builderElement != null) {
+      this.builderClass = ClassName.get(builderElement);
+      parseBuilder(builderElement);
+    } else {
+      this.builderClass = null;
+      if (rowElement.getModifiers().contains(Modifier.ABSTRACT))
+        throw new UnsupportedRowException("abstract row classes need a Builder");
+      checkDefaultConstructor(rowElement);
+      parseRow();
+    }
+    if (columns.isEmpty()) throw new UnsupportedRowException("no @Column fields or methods");
+  }
+
+  ClassName mapperClass() {
+    return ClassName.get(rowClass.packageName(), joinSimpleNames(rowClass) + "_InquiryMapper");
+  }
+
+  private static String joinSimpleNames(ClassName className) {
+    StringBuilder sb = new StringBuilder();
+    for (String name : className.simpleNames()) {
+      if (sb.length() > 0) sb.append('_');
+      sb.append(name);
+    }
+    return sb.toString();
+  }
+
+  // Mirrors Inquiry.getBuilderClass()
+  private TypeElement findBuilder(TypeElement row) {
+    TypeElement builder = null;
+    for (TypeElement declared : ElementFilter.typesIn(row.getEnclosedElements())) {
+      if (declared.getSimpleName().contentEquals("Builder")) builder = declared;
+      if (getAnnotation(declared, ROW_BUILDER) != null) {
+        builder = declared;
+        break;
+      }
+    }
+    return builder;
+  }
+
+  private void parseBuilder(TypeElement builder) throws UnsupportedRowException {
+    checkAccessible(builder);
+    if (builder.getModifiers().contains(Modifier.ABSTRACT))
+      throw new UnsupportedRowException("the Builder is abstract");
+    checkDefaultConstructor(builder);
+
+    boolean hasBuildMethod = false;
+    for (ExecutableElement method : ElementFilter.methodsIn(builder.getEnclosedElements())) {
+      if (method.getModifiers().contains(Modifier.STATIC)) continue;
+      if (method.getParameters().isEmpty()) {
+        if (method.getSimpleName().contentEquals("build")
+            && types.isSameType(method.getReturnType(), rowElement.asType())) {
+          checkAccessible(method);
+          hasBuildMethod = true;
+        }
+        continue;
+      }
+      if (method.getParameters().size() != 1
+          || !types.isSameType(method.getReturnType(), builder.asType()))
+        throw new UnsupportedRowException("Builder method " + method + " isn't a setter");
+
+      final String setterName = method.getSimpleName().toString();
+      final String getterName = setterName.startsWith("set") ? setterName.substring(3) : setterName;
+      final ExecutableElement getter = findMethod(rowElement, getterName);
+      if (getter == null)
+        throw new UnsupportedRowException("Builder method " + setterName + " has no getter");
+      final TypeMirror type = method.getParameters().get(0).asType();
+      if (!types.isSameType(getter.getReturnType(), type))
+        throw new UnsupportedRowException("getter " + getterName + "() doesn't match the Builder");
+
+      final String columnName = columnName(getter, getterName);
+      if (columnName == null) continue;
+      checkAccessible(getter);
+      addColumn(
+          getter, columnName, type, getterName + "()", ColumnModel.SetterKind.BUILDER, setterName);
+    }
+    if (!hasBuildMethod)
+      throw new UnsupportedRowException("the Builder has no build() method returning the row");
+  }
+
+  private void parseRow() throws UnsupportedRowException {
+    TypeElement cls = rowElement;
+    while (cls != null) {
+      for (VariableElement field : ElementFilter.fieldsIn(cls.getEnclosedElements())) {
+        final String columnName = columnName(field, field.getSimpleName().toString());
+        if (columnName == null) continue;
+        if (field.getModifiers().contains(Modifier.STATIC)
+            || field.getModifiers().contains(Modifier.FINAL))
+          throw new UnsupportedRowException("field " + field + " is static or final");
+        checkAccessible(field);
+        final String name = field.getSimpleName().toString();
+        addColumn(field, columnName, field.asType(), name, ColumnModel.SetterKind.FIELD, name);
+      }
+      for (ExecutableElement method : ElementFilter.methodsIn(cls.getEnclosedElements())) {
+        if (!method.getParameters().isEmpty()) continue;
+        String getterName = method.getSimpleName().toString();
+        if (getterName.startsWith("get")) getterName = getterName.substring(3);
+        final String columnName = columnName(method, getterName);
+        if (columnName == null) continue;
+        checkAccessible(method);
+        parseGetter(method, columnName);
+      }
+      cls = superclassOf(cls);
+    }
+  }
+
+  // Mirrors the setter lookup of FieldDelegate's row constructor
+  private void parseGetter(ExecutableElement getter, String columnName)
+      throws UnsupportedRowException {
+    final String getterName = getter.getSimpleName().toString();
+    final TypeMirror type = getter.getReturnType();
+    final String setterName =
+        getterName.startsWith("get") ? "set" + getterName.substring(3) : getterName;
+
+    for (ExecutableElement method : ElementFilter.methodsIn(rowElement.getEnclosedElements())) {
+      if (!method.getSimpleName().contentEquals(setterName)
+          || method.getParameters().size() != 1
+          || !types.isSameType(method.getParameters().get(0).asType(), type)) continue;
+      if (method.getReturnType().getKind() != TypeKind.VOID)
+        throw new UnsupportedRowException("setter " + setterName + " doesn't return void");
+      checkAccessible(method);
+      addColumn(
+          getter, columnName, type, getterName + "()", ColumnModel.SetterKind.METHOD, setterName);
+      return;
+    }
+
+    final String fieldName = getterName.startsWith("get") ? getterName.substring(3) : getterName;
+    for (VariableElement field : ElementFilter.fieldsIn(rowElement.getEnclosedElements())) {
+      if (!field.getSimpleName().contentEquals(fieldName)) continue;
+      if (!types.isAssignable(type, field.asType())
+          || field.getModifiers().contains(Modifier.FINAL)) break;
+      checkAccessible(field);
+      addColumn(
+          getter, columnName, type, getterName + "()", ColumnModel.SetterKind.FIELD, fieldName);
+      return;
+    }
+    throw new UnsupportedRowException("getter " + getterName + "() has no setter");
+  }
+
+  private void addColumn(
+      Element element,
+      String columnName,
+      TypeMirror type,
+      String getter,
+      ColumnModel.SetterKind setterKind,
+      String setterName)
+      throws UnsupportedRowException {
+    final ValueType valueType = ValueType.of(type);
+    if (valueType == null)
+      throw new UnsupportedRowException("column " + columnName + " has unsupported type " + type);
+    final AnnotationMirror column = getAnnotation(element, COLUMN);
+    final boolean autoIncrement = column != null && getBoolean(column, "autoIncrement");
+    if (autoIncrement && valueType != ValueType.LONG)
+      throw new UnsupportedRowException("autoIncrement column " + columnName + " isn't a long");
+    columns.add(
+        new ColumnModel(
+            columnName, type, valueType, autoIncrement, getter, setterKind, setterName));
+  }
+
+  /** Returns null if the element isn't a column. */
+  private String columnName(Element element, String defaultName) throws UnsupportedRowException {
+    if (getAnnotation(element, FOREIGN_KEY) != null)
+      throw new UnsupportedRowException("@ForeignKey fields are loaded through reflection");
+    final AnnotationMirror column = getAnnotation(element, COLUMN);
+    if (column == null) return defaultName.equals("_id") ? defaultName : null;
+    final String name = getString(column, "name");
+    return name != null && !name.trim().isEmpty() ? name : defaultName;
+  }
+
+  private void checkDefaultConstructor(TypeElement type) throws UnsupportedRowException {
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty()
+          && !constructor.getModifiers().contains(Modifier.PRIVATE)) return;
+    }
+    throw new UnsupportedRowException(type + " has no non-private default constructor");
+  }
+
+  /** The generated mapper lives in the row's package, so anything it touches can't be private. */
+  private void checkAccessible(Element element) throws UnsupportedRowException {
+    Element current = element;
+    while (current != null && !(current instanceof PackageElement)) {
+      final boolean isPublic = current.getModifiers().contains(Modifier.PUBLIC);
+      if (current.getModifiers().contains(Modifier.PRIVATE)
+          || (!isPublic && !samePackage(current))) {
+        throw new UnsupportedRowException(element + " isn't accessible from generated code");
+      }
+      if (current.getKind() == ElementKind.CLASS
+          && current.getEnclosingElement().getKind() == ElementKind.CLASS
+          && !current.getModifiers().contains(Modifier.STATIC)) {
+        throw new UnsupportedRowException(current + " is an inner (non-static) class");
+      }
+      current = current.getEnclosingElement();
+    }
+  }
+
+  private boolean samePackage(Element element) {
+    return elements.getPackageOf(element).getQualifiedName().contentEquals(packageName);
+  }
+
+  private ExecutableElement findMethod(TypeElement type, String name) {
+    for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+      if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty())
+        return method;
+    }
+    return null;
+  }
+
+  private static TypeElement superclassOf(TypeElement type) {
+    final TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) return null;
+    return (TypeElement) ((DeclaredType) superclass).asElement();
+  }
+
+  private static AnnotationMirror getAnnotation(Element element, String annotationName) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      final TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+      if (type.getQualifiedName().contentEquals(annotationName)) return mirror;
+    }
+    return null;
+  }
+
+  private static Object getValue(AnnotationMirror mirror, String name) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        mirror.getElementValues().entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(name)) return entry.getValue().getValue();
+    }
+    return null;
+  }
+
+  private static String getString(AnnotationMirror mirror, String name) {
+    return (String) getValue(mirror, name);
+  }
+
+  private static boolean getBoolean(AnnotationMirror mirror, String name) {
+    return Boolean.TRUE.equals(getValue(mirror, name));
+  }
+}
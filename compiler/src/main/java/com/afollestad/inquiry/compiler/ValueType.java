@@ -0,0 +1,60 @@
+package com.afollestad.inquiry.compiler;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * The column value types which generated mappers can read and write directly. Anything else (e.g.
+ * Bitmaps or Serializable objects) is left to Inquiry's reflection based conversion.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+enum ValueType {
+  SHORT("getShort", "(short) 0", "java.lang.Short"),
+  INT("getInt", "0", "java.lang.Integer"),
+  LONG("getLong", "0L", "java.lang.Long"),
+  FLOAT("getFloat", "0f", "java.lang.Float"),
+  DOUBLE("getDouble", "0d", "java.lang.Double"),
+  BOOLEAN("getInt", "false", "java.lang.Boolean"),
+  STRING("getString", "null", "java.lang.String"),
+  BLOB("getBlob", "null", null);
+
+  final String cursorGetter;
+  final String nullValue;
+  final String boxedName;
+
+  ValueType(String cursorGetter, String nullValue, String boxedName) {
+    this.cursorGetter = cursorGetter;
+    this.nullValue = nullValue;
+    this.boxedName = boxedName;
+  }
+
+  /** Returns null if the type isn't supported by generated mappers. */
+  static ValueType of(TypeMirror type) {
+    switch (type.getKind()) {
+      case SHORT:
+        return SHORT;
+      case INT:
+        return INT;
+      case LONG:
+        return LONG;
+      case FLOAT:
+        return FLOAT;
+      case DOUBLE:
+        return DOUBLE;
+      case BOOLEAN:
+        return BOOLEAN;
+      case ARRAY:
+        return ((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE ? BLOB : null;
+      case DECLARED:
+        final String name = type.toString();
+        for (ValueType valueType : values()) {
+          if (name.equals(valueType.boxedName)) return valueType;
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+}
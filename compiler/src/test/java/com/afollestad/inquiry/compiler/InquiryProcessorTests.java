@@ -0,0 +1,326 @@
+package com.afollestad.inquiry.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Runs the processor over sample rows. Stand-ins for the Inquiry and Android types that generated
+ * mappers use are compiled along with them, so the generated sources must compile too.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public class InquiryProcessorTests {
+
+  @Rule public TemporaryFolder temp = new TemporaryFolder();
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final JavaFileObject[] SUPPORT_SOURCES = {
+    source(
+        "com.afollestad.inquiry.annotations.Table",
+        "public @interface Table {",
+        "  String name() default \"\";",
+        "}"),
+    source(
+        "com.afollestad.inquiry.annotations.Column",
+        "public @interface Column {",
+        "  boolean primaryKey() default false;",
+        "  boolean autoIncrement() default false;",
+        "  boolean notNull() default false;",
+        "  String name() default \"\";",
+        "}"),
+    source(
+        "com.afollestad.inquiry.annotations.ForeignKey",
+        "public @interface ForeignKey {",
+        "  String tableName();",
+        "  String foreignColumnName();",
+        "}"),
+    source("com.afollestad.inquiry.annotations.RowBuilder", "public @interface RowBuilder {}"),
+    source(
+        "android.database.Cursor",
+        "public interface Cursor {",
+        "  boolean isNull(int index);",
+        "  short getShort(int index);",
+        "  int getInt(int index);",
+        "  long getLong(int index);",
+        "  float getFloat(int index);",
+        "  double getDouble(int index);",
+        "  String getString(int index);",
+        "  byte[] getBlob(int index);",
+        "}"),
+    source(
+        "com.afollestad.inquiry.InquiryMapper",
+        "public interface InquiryMapper<RowType> {",
+        "  String[] columns();",
+        "  RowType read(android.database.Cursor cursor, int[] columnIndexes);",
+        "  void write(RowType row, RowValues values);",
+        "}"),
+    source(
+        "com.afollestad.inquiry.RowValues",
+        "public class RowValues {",
+        "  public void put(String key, String value) {}",
+        "  public void put(String key, Short value) {}",
+        "  public void put(String key, Integer value) {}",
+        "  public void put(String key, Long value) {}",
+        "  public void put(String key, Float value) {}",
+        "  public void put(String key, Double value) {}",
+        "  public void put(String key, Boolean value) {}",
+        "  public void put(String key, byte[] value) {}",
+        "}")
+  };
+
+  private static final class Result {
+    final boolean success;
+    final File generatedDir;
+    final List<String> errors = new ArrayList<>();
+    final List<String> notes = new ArrayList<>();
+
+    Result(boolean success, File generatedDir) {
+      this.success = success;
+      this.generatedDir = generatedDir;
+    }
+
+    boolean hasMapper(String mapperName) {
+      return new File(generatedDir, mapperName.replace('.', '/') + ".java").exists();
+    }
+
+    String mapperSource(String mapperName) throws IOException {
+      assertTrue("No " + mapperName + " was generated: " + notes, hasMapper(mapperName));
+      final File file = new File(generatedDir, mapperName.replace('.', '/') + ".java");
+      return new String(Files.readAllBytes(file.toPath()), UTF_8);
+    }
+
+    void assertSkipped(String rowName, String reason) {
+      assertTrue("Compilation failed: " + errors, success);
+      for (String note : notes) {
+        if (note.startsWith("Inquiry will use reflection for " + rowName + ": ")) {
+          assertTrue(note, note.contains(reason));
+          return;
+        }
+      }
+      throw new AssertionError("No note for " + rowName + ": " + notes);
+    }
+  }
+
+  private static JavaFileObject source(String className, String... lines) {
+    final int lastDot = className.lastIndexOf('.');
+    final StringBuilder code =
+        new StringBuilder("package ").append(className.substring(0, lastDot)).append(";\n");
+    for (String line : lines) code.append(line).append('\n');
+    final String content = code.toString();
+    final URI uri = URI.create("string:///" + className.replace('.', '/') + ".java");
+    return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return content;
+      }
+    };
+  }
+
+  private Result compile(JavaFileObject... rowSources) throws IOException {
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    final StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, Locale.US, UTF_8);
+    final File generatedDir = temp.newFolder();
+    fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(temp.newFolder()));
+    fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singleton(generatedDir));
+
+    final List<JavaFileObject> sources = new ArrayList<>();
+    Collections.addAll(sources, SUPPORT_SOURCES);
+    Collections.addAll(sources, rowSources);
+    final JavaCompiler.CompilationTask task =
+        compiler.getTask(null, fileManager, diagnostics, null, null, sources);
+    task.setProcessors(Collections.singletonList(new InquiryProcessor()));
+    final Result result = new Result(task.call(), generatedDir);
+    fileManager.close();
+
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+        result.errors.add(diagnostic.getMessage(Locale.US));
+      } else if (diagnostic.getKind() == Diagnostic.Kind.NOTE) {
+        result.notes.add(diagnostic.getMessage(Locale.US));
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void test_generates_field_mapper() throws Exception {
+    final Result result =
+        compile(
+            source(
+                "com.example.Note",
+                "import com.afollestad.inquiry.annotations.Column;",
+                "import com.afollestad.inquiry.annotations.Table;",
+                "@Table",
+                "public class Note {",
+                "  @Column(name = \"_id\", primaryKey = true, autoIncrement = true) long id;",
+                "  @Column String title;",
+                "  @Column public boolean done;",
+                "  @Column Integer priority;",
+                "  @Column byte[] data;",
+                "  String notAColumn;",
+                "}"));
+    assertTrue("Compilation failed: " + result.errors, result.success);
+
+    final String mapper = result.mapperSource("com.example.Note_InquiryMapper");
+    assertTrue(mapper, mapper.contains("public final class Note_InquiryMapper"));
+    assertTrue(mapper, mapper.contains("implements InquiryMapper<Note>"));
+    assertTrue(mapper, mapper.contains("{\"_id\", \"title\", \"done\", \"priority\", \"data\"}"));
+    assertFalse(mapper, mapper.contains("notAColumn"));
+
+    assertTrue(mapper, mapper.contains("if (index != -1) row.id = cursor.isNull(index) ? 0L"));
+    assertTrue(mapper, mapper.contains("if (index != -1) row.title = cursor.getString(index)"));
+    assertTrue(mapper, mapper.contains("row.done = !cursor.isNull(index) && cursor.getInt"));
+    assertTrue(mapper, mapper.contains("if (index != -1) row.data = cursor.getBlob(index)"));
+
+    // Unsaved rows let SQLite assign the auto incremented _id
+    assertTrue(mapper, mapper.contains("if (value0 > 0) values.put(\"_id\", value0)"));
+    assertTrue(mapper, mapper.contains("values.put(\"done\", value2 ? 1 : 0)"));
+    assertTrue(mapper, mapper.contains("if (value3 != null) values.put(\"priority\", value3)"));
+  }
+
+  @Test
+  public void test_generates_builder_mapper() throws Exception {
+    final Result result =
+        compile(
+            source(
+                "com.example.Person",
+                "import com.afollestad.inquiry.annotations.Column;",
+                "import com.afollestad.inquiry.annotations.Table;",
+                "@Table",
+                "public class Person {",
+                "  String name;",
+                "  @Column public String name() { return name; }",
+                "  public static class Builder {",
+                "    final Person person = new Person();",
+                "    public Builder name(String name) { person.name = name; return this; }",
+                "    public Person build() { return person; }",
+                "  }",
+                "}"));
+    assertTrue("Compilation failed: " + result.errors, result.success);
+
+    final String mapper = result.mapperSource("com.example.Person_InquiryMapper");
+    assertTrue(mapper, mapper.contains("Person.Builder builder = new Person.Builder()"));
+    assertTrue(mapper, mapper.contains("if (index != -1) builder.name(cursor.getString(index))"));
+    assertTrue(mapper, mapper.contains("return builder.build()"));
+    assertTrue(mapper, mapper.contains("String value0 = row.name()"));
+  }
+
+  @Test
+  public void test_nested_row_mapper_name() throws Exception {
+    final Result result =
+        compile(
+            source(
+                "com.example.Outer",
+                "import com.afollestad.inquiry.annotations.Column;",
+                "import com.afollestad.inquiry.annotations.Table;",
+                "public class Outer {",
+                "  @Table",
+                "  public static class Row {",
+                "    @Column long _id;",
+                "  }",
+                "}"));
+    assertTrue("Compilation failed: " + result.errors, result.success);
+    // RowMapper looks it up by replacing the $ of the binary name
+    assertTrue(result.hasMapper("com.example.Outer_Row_InquiryMapper"));
+  }
+
+  @Test
+  public void test_skips_private_fields() throws Exception {
+    final Result result =
+        compile(
+            source(
+                "com.example.Secret",
+                "import com.afollestad.inquiry.annotations.Column;",
+                "import com.afollestad.inquiry.annotations.Table;",
+                "@Table",
+                "public class Secret {",
+                "  @Column long _id;",
+                "  @Column private String value;",
+                "}"));
+    result.assertSkipped("com.example.Secret", "isn't accessible from generated code");
+    assertFalse(result.hasMapper("com.example.Secret_InquiryMapper"));
+  }
+
+  @Test
+  public void test_skips_foreign_keys() throws Exception {
+    final Result result =
+        compile(
+            source(
+                "com.example.Parent",
+                "import com.afollestad.inquiry.annotations.Column;",
+                "import com.afollestad.inquiry.annotations.ForeignKey;",
+                "import com.afollestad.inquiry.annotations.Table;",
+                "@Table",
+                "public class Parent {",
+                "  @Column long _id;",
+                "  @ForeignKey(tableName = \"children\", foreignColumnName = \"parentId\")",
+                "  java.util.List<String> children;",
+                "}"));
+    result.assertSkipped("com.example.Parent", "@ForeignKey");
+    assertFalse(result.hasMapper("com.example.Parent_InquiryMapper"));
+  }
+
+  @Test
+  public void test_skips_inner_classes() throws Exception {
+    final Result result =
+        compile(
+            source(
+                "com.example.Holder",
+                "import com.afollestad.inquiry.annotations.Column;",
+                "import com.afollestad.inquiry.annotations.Table;",
+                "public class Holder {",
+                "  @Table",
+                "  public class Inner {",
+                "    @Column long _id;",
+                "  }",
+                "}"));
+    result.assertSkipped("com.example.Holder.Inner", "inner (non-static) class");
+    assertFalse(result.hasMapper("com.example.Holder_Inner_InquiryMapper"));
+  }
+
+  @Test
+  public void test_skips_builders_without_build() throws Exception {
+    final Result result =
+        compile(
+            source(
+                "com.example.Unbuilt",
+                "import com.afollestad.inquiry.annotations.Column;",
+                "import com.afollestad.inquiry.annotations.Table;",
+                "@Table",
+                "public class Unbuilt {",
+                "  String name;",
+                "  @Column public String name() { return name; }",
+                "  public static class Builder {",
+                "    public Builder name(String name) { return this; }",
+                "  }",
+                "}"));
+    result.assertSkipped("com.example.Unbuilt", "no build() method");
+    assertFalse(result.hasMapper("com.example.Unbuilt_InquiryMapper"));
+    assertEquals(0, result.errors.size());
+  }
+}
@@ -0,0 +1,5 @@
+# Generated mappers are looked up by the name of their row class
+-keepnames @com.afollestad.inquiry.annotations.Table class *
+-keep class * implements com.afollestad.inquiry.InquiryMapper {
+    public <init>();
+}
@@ -0,0 +1,138 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The results of {@link Query#aggregate(String...)}, one row per group. Columns are named by the
+ * cursor, so they're either the expression itself, e.g. "SUM(duration)", or its alias.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class AggregateResult {
+
+  @NonNull private final String[] columnNames;
+  @NonNull private final List<Object[]> rows;
+
+  AggregateResult(@NonNull String[] columnNames, @Nullable Cursor cursor) {
+    if (cursor == null) {
+      this.columnNames = columnNames;
+      this.rows = new ArrayList<>(0);
+      return;
+    }
+    try {
+      this.columnNames = cursor.getColumnNames() != null ? cursor.getColumnNames() : columnNames;
+      this.rows = new ArrayList<>(Math.max(cursor.getCount(), 0));
+      while (cursor.moveToNext()) {
+        final Object[] row = new Object[this.columnNames.length];
+        for (int i = 0; i < row.length; i++) row[i] = readValue(cursor, i);
+        rows.add(row);
+      }
+    } finally {
+      cursor.close();
+    }
+  }
+
+  @Nullable
+  private static Object readValue(@NonNull Cursor cursor, int index) {
+    switch (cursor.getType(index)) {
+      case Cursor.FIELD_TYPE_INTEGER:
+        return cursor.getLong(index);
+      case Cursor.FIELD_TYPE_FLOAT:
+        return cursor.getDouble(index);
+      case Cursor.FIELD_TYPE_STRING:
+        return cursor.getString(index);
+      case Cursor.FIELD_TYPE_BLOB:
+        return cursor.getBlob(index);
+      default:
+        return null;
+    }
+  }
+
+  /** The number of rows, which is the number of groups for grouped queries. */
+  public int size() {
+    return rows.size();
+  }
+
+  @NonNull
+  public String[] columnNames() {
+    return columnNames.clone();
+  }
+
+  /** Returns the index of a column by its name or alias. */
+  public int column(@NonNull String name) {
+    for (int i = 0; i < columnNames.length; i++) {
+      if (columnNames[i].equalsIgnoreCase(name)) return i;
+    }
+    throw new IllegalArgumentException("Column " + name + " isn't in this result.");
+  }
+
+  @Nullable
+  private Object value(int row, int column) {
+    if (row < 0 || row >= rows.size())
+      throw new IndexOutOfBoundsException("Row " + row + " of " + rows.size());
+    return rows.get(row)[column];
+  }
+
+  public boolean isNull(int row, int column) {
+    return value(row, column) == null;
+  }
+
+  public boolean isNull(int row, @NonNull String column) {
+    return isNull(row, column(column));
+  }
+
+  /** Reads a value as a long, null values are 0. */
+  public long getLong(int row, int column) {
+    final Object value = value(row, column);
+    if (value == null) return 0;
+    else if (value instanceof Number) return ((Number) value).longValue();
+    else if (value instanceof String) return Long.parseLong((String) value);
+    throw new IllegalStateException("Column " + columnNames[column] + " is a BLOB.");
+  }
+
+  public long getLong(int row, @NonNull String column) {
+    return getLong(row, column(column));
+  }
+
+  /** Reads a value as a double, null values are 0. */
+  public double getDouble(int row, int column) {
+    final Object value = value(row, column);
+    if (value == null) return 0;
+    else if (value instanceof Number) return ((Number) value).doubleValue();
+    else if (value instanceof String) return Double.parseDouble((String) value);
+    throw new IllegalStateException("Column " + columnNames[column] + " is a BLOB.");
+  }
+
+  public double getDouble(int row, @NonNull String column) {
+    return getDouble(row, column(column));
+  }
+
+  @Nullable
+  public String getString(int row, int column) {
+    final Object value = value(row, column);
+    if (value instanceof byte[])
+      throw new IllegalStateException("Column " + columnNames[column] + " is a BLOB.");
+    return value != null ? value.toString() : null;
+  }
+
+  @Nullable
+  public String getString(int row, @NonNull String column) {
+    return getString(row, column(column));
+  }
+
+  @Nullable
+  public byte[] getBlob(int row, int column) {
+    final Object value = value(row, column);
+    if (value == null || value instanceof byte[]) return (byte[]) value;
+    return value.toString().getBytes();
+  }
+
+  @Nullable
+  public byte[] getBlob(int row, @NonNull String column) {
+    return getBlob(row, column(column));
+  }
+}
@@ -0,0 +1,22 @@
+package com.afollestad.inquiry;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Provides Bitmaps whose memory is reused when Bitmap columns are decoded, see {@link
+ * android.graphics.BitmapFactory.Options#inBitmap}. Set one with {@link
+ * Inquiry.Builder#bitmapPool(BitmapPool)}.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public interface BitmapPool {
+
+  /**
+   * Returns a mutable Bitmap that can hold an image of the given size, or null to allocate a new
+   * one. If the decoder can't reuse it, the row is decoded into a new Bitmap instead.
+   */
+  @Nullable
+  Bitmap get(int width, int height, @NonNull Bitmap.Config config);
+}
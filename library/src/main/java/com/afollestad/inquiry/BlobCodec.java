@@ -0,0 +1,22 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Encodes the values of columns which don't have a {@link TypeAdapter} into BLOBs. The default
+ * codec writes a compact binary format for strings, boxed primitives, primitive arrays, dates and
+ * common collections, and falls back to Java serialization for anything else. Set your own with
+ * {@link Inquiry.Builder#blobCodec(BlobCodec)}; it's only given values which are Serializable.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public interface BlobCodec {
+
+  @NonNull
+  byte[] encode(@NonNull Object value);
+
+  /** @param type The type of the field or getter method the value is loaded into. */
+  @Nullable
+  Object decode(@NonNull byte[] data, @NonNull Class<?> type);
+}
@@ -0,0 +1,726 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.afollestad.inquiry.annotations.BitmapFormat;
+import com.afollestad.inquiry.lazyloading.LazyBlob;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+
+/**
+ * The adapters of the types Inquiry supports out of the box. Column types match the schemas that
+ * older versions created, so existing tables keep working.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+final class BuiltInTypeAdapters {
+
+  private BuiltInTypeAdapters() {}
+
+  static void registerAll(@NonNull TypeAdapterRegistry registry) {
+    final ShortAdapter shortAdapter = new ShortAdapter();
+    registry.register(short.class, shortAdapter);
+    registry.register(Short.class, shortAdapter);
+    final IntAdapter intAdapter = new IntAdapter();
+    registry.register(int.class, intAdapter);
+    registry.register(Integer.class, intAdapter);
+    final LongAdapter longAdapter = new LongAdapter();
+    registry.register(long.class, longAdapter);
+    registry.register(Long.class, longAdapter);
+    final BooleanAdapter booleanAdapter = new BooleanAdapter();
+    registry.register(boolean.class, booleanAdapter);
+    registry.register(Boolean.class, booleanAdapter);
+    final FloatAdapter floatAdapter = new FloatAdapter();
+    registry.register(float.class, floatAdapter);
+    registry.register(Float.class, floatAdapter);
+    final DoubleAdapter doubleAdapter = new DoubleAdapter();
+    registry.register(double.class, doubleAdapter);
+    registry.register(Double.class, doubleAdapter);
+    final CharAdapter charAdapter = new CharAdapter();
+    registry.register(char.class, charAdapter);
+    registry.register(Character.class, charAdapter);
+    final ByteAdapter byteAdapter = new ByteAdapter();
+    registry.register(byte.class, byteAdapter);
+    registry.register(Byte.class, byteAdapter);
+
+    registry.register(String.class, new StringAdapter());
+    registry.register(CharSequence.class, new CharSequenceAdapter());
+    registry.register(char[].class, new CharArrayAdapter());
+    registry.register(Character[].class, new CharacterArrayAdapter());
+    registry.register(byte[].class, new ByteArrayAdapter());
+    registry.register(Byte[].class, new BoxedByteArrayAdapter());
+    registry.register(Bitmap.class, new BitmapAdapter());
+  }
+
+  static final class ShortAdapter extends TypeAdapter<Short> {
+
+    ShortAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return BLOB;
+    }
+
+    @NonNull
+    @Override
+    String storageType() {
+      return INTEGER;
+    }
+
+    @Override
+    boolean accepts(int cursorType) {
+      return cursorType != Cursor.FIELD_TYPE_STRING;
+    }
+
+    @Override
+    public Short read(@NonNull Cursor cursor, int columnIndex) {
+      return cursor.getShort(columnIndex);
+    }
+
+    @Override
+    public void write(@NonNull RowValues values, @NonNull String columnName, @NonNull Short value) {
+      values.put(columnName, value);
+    }
+
+    @Override
+    void load(
+        @NonNull Cursor cursor,
+        int columnIndex,
+        @NonNull FieldDelegate proxy,
+        @NonNull Object row) {
+      proxy.setShort(row, cursor.isNull(columnIndex) ? 0 : cursor.getShort(columnIndex));
+    }
+  }
+
+  static final class IntAdapter extends TypeAdapter<Integer> {
+
+    IntAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return INTEGER;
+    }
+
+    @Override
+    public Integer read(@NonNull Cursor cursor, int columnIndex) {
+      return cursor.getInt(columnIndex);
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull Integer value) {
+      values.put(columnName, value);
+    }
+
+    @Override
+    void load(
+        @NonNull Cursor cursor,
+        int columnIndex,
+        @NonNull FieldDelegate proxy,
+        @NonNull Object row) {
+      proxy.setInt(row, cursor.isNull(columnIndex) ? 0 : cursor.getInt(columnIndex));
+    }
+  }
+
+  static final class LongAdapter extends TypeAdapter<Long> {
+
+    LongAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return INTEGER;
+    }
+
+    @Override
+    public Long read(@NonNull Cursor cursor, int columnIndex) {
+      return cursor.getLong(columnIndex);
+    }
+
+    @Override
+    public void write(@NonNull RowValues values, @NonNull String columnName, @NonNull Long value) {
+      values.put(columnName, value);
+    }
+
+    @Override
+    void load(
+        @NonNull Cursor cursor,
+        int columnIndex,
+        @NonNull FieldDelegate proxy,
+        @NonNull Object row) {
+      proxy.setLong(row, cursor.isNull(columnIndex) ? 0 : cursor.getLong(columnIndex));
+    }
+  }
+
+  static final class BooleanAdapter extends TypeAdapter<Boolean> {
+
+    BooleanAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return INTEGER;
+    }
+
+    @Override
+    boolean accepts(int cursorType) {
+      return cursorType != Cursor.FIELD_TYPE_STRING && cursorType != Cursor.FIELD_TYPE_FLOAT;
+    }
+
+    @Override
+    public Boolean read(@NonNull Cursor cursor, int columnIndex) {
+      return cursor.getInt(columnIndex) == 1;
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull Boolean value) {
+      values.put(columnName, value ? 1 : 0);
+    }
+
+    @Override
+    void load(
+        @NonNull Cursor cursor,
+        int columnIndex,
+        @NonNull FieldDelegate proxy,
+        @NonNull Object row) {
+      proxy.setBoolean(row, !cursor.isNull(columnIndex) && cursor.getInt(columnIndex) == 1);
+    }
+  }
+
+  static final class FloatAdapter extends TypeAdapter<Float> {
+
+    FloatAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return REAL;
+    }
+
+    @Override
+    public Float read(@NonNull Cursor cursor, int columnIndex) {
+      return cursor.getFloat(columnIndex);
+    }
+
+    @Override
+    public void write(@NonNull RowValues values, @NonNull String columnName, @NonNull Float value) {
+      values.put(columnName, value);
+    }
+
+    @Override
+    void load(
+        @NonNull Cursor cursor,
+        int columnIndex,
+        @NonNull FieldDelegate proxy,
+        @NonNull Object row) {
+      proxy.setFloat(row, cursor.isNull(columnIndex) ? 0 : cursor.getFloat(columnIndex));
+    }
+  }
+
+  static final class DoubleAdapter extends TypeAdapter<Double> {
+
+    DoubleAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return REAL;
+    }
+
+    @Override
+    public Double read(@NonNull Cursor cursor, int columnIndex) {
+      return cursor.getDouble(columnIndex);
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull Double value) {
+      values.put(columnName, value);
+    }
+
+    @Override
+    void load(
+        @NonNull Cursor cursor,
+        int columnIndex,
+        @NonNull FieldDelegate proxy,
+        @NonNull Object row) {
+      proxy.setDouble(row, cursor.isNull(columnIndex) ? 0 : cursor.getDouble(columnIndex));
+    }
+  }
+
+  static final class CharAdapter extends TypeAdapter<Character> {
+
+    CharAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return BLOB;
+    }
+
+    @NonNull
+    @Override
+    String storageType() {
+      return TEXT;
+    }
+
+    @Override
+    boolean accepts(int cursorType) {
+      return cursorType != Cursor.FIELD_TYPE_INTEGER && cursorType != Cursor.FIELD_TYPE_FLOAT;
+    }
+
+    @Nullable
+    @Override
+    public Character read(@NonNull Cursor cursor, int columnIndex) {
+      final String text = cursor.getString(columnIndex);
+      return text != null && text.length() > 0 ? text.charAt(0) : null;
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull Character value) {
+      values.put(columnName, Character.toString(value));
+    }
+  }
+
+  static final class ByteAdapter extends TypeAdapter<Byte> {
+
+    ByteAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return BLOB;
+    }
+
+    @NonNull
+    @Override
+    String storageType() {
+      return INTEGER;
+    }
+
+    @Nullable
+    @Override
+    public Byte read(@NonNull Cursor cursor, int columnIndex) {
+      // Bytes are written as INTEGER, but were read from BLOB cells before
+      if (cursor.getType(columnIndex) == Cursor.FIELD_TYPE_INTEGER)
+        return (byte) cursor.getLong(columnIndex);
+      final byte[] blob = cursor.getBlob(columnIndex);
+      return blob != null ? blob[0] : null;
+    }
+
+    @Override
+    public void write(@NonNull RowValues values, @NonNull String columnName, @NonNull Byte value) {
+      values.put(columnName, value);
+    }
+  }
+
+  static final class StringAdapter extends TypeAdapter<String> {
+
+    StringAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return TEXT;
+    }
+
+    @Override
+    public String read(@NonNull Cursor cursor, int columnIndex) {
+      return cursor.getString(columnIndex);
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull String value) {
+      values.put(columnName, value);
+    }
+  }
+
+  static final class CharSequenceAdapter extends TypeAdapter<CharSequence> {
+
+    CharSequenceAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      // Matches the schema of tables created before type adapters
+      return BLOB;
+    }
+
+    @NonNull
+    @Override
+    String storageType() {
+      return TEXT;
+    }
+
+    @Override
+    public CharSequence read(@NonNull Cursor cursor, int columnIndex) {
+      return cursor.getString(columnIndex);
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull CharSequence value) {
+      values.put(columnName, value.toString());
+    }
+  }
+
+  static final class CharArrayAdapter extends TypeAdapter<char[]> {
+
+    CharArrayAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return TEXT;
+    }
+
+    @Nullable
+    @Override
+    public char[] read(@NonNull Cursor cursor, int columnIndex) {
+      final String text = cursor.getString(columnIndex);
+      return text != null && text.length() > 0 ? text.toCharArray() : null;
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull char[] value) {
+      values.put(columnName, new String(value));
+    }
+  }
+
+  static final class CharacterArrayAdapter extends TypeAdapter<Character[]> {
+
+    CharacterArrayAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return TEXT;
+    }
+
+    @Nullable
+    @Override
+    public Character[] read(@NonNull Cursor cursor, int columnIndex) {
+      final String text = cursor.getString(columnIndex);
+      if (text == null || text.length() == 0) return null;
+      final Character[] result = new Character[text.length()];
+      for (int i = 0; i < result.length; i++) result[i] = text.charAt(i);
+      return result;
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull Character[] value) {
+      final StringBuilder text = new StringBuilder(value.length);
+      for (Character c : value) text.append(c.charValue());
+      values.put(columnName, text.toString());
+    }
+  }
+
+  static final class ByteArrayAdapter extends TypeAdapter<byte[]> {
+
+    ByteArrayAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return BLOB;
+    }
+
+    @Override
+    public byte[] read(@NonNull Cursor cursor, int columnIndex) {
+      return cursor.getBlob(columnIndex);
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull byte[] value) {
+      values.put(columnName, value);
+    }
+  }
+
+  static final class BoxedByteArrayAdapter extends TypeAdapter<Byte[]> {
+
+    BoxedByteArrayAdapter() {
+      super(true);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return BLOB;
+    }
+
+    @Nullable
+    @Override
+    public Byte[] read(@NonNull Cursor cursor, int columnIndex) {
+      final byte[] blob = cursor.getBlob(columnIndex);
+      if (blob == null) return null;
+      final Byte[] result = new Byte[blob.length];
+      for (int i = 0; i < blob.length; i++) result[i] = blob[i];
+      return result;
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull Byte[] value) {
+      final byte[] blob = new byte[value.length];
+      for (int i = 0; i < blob.length; i++) blob[i] = value[i];
+      values.put(columnName, blob);
+    }
+  }
+
+  static final class BitmapAdapter extends TypeAdapter<Bitmap> {
+
+    // Scratch memory for decoding and encoding, reused by every Bitmap column of the thread
+    private static final ThreadLocal<byte[]> decodeBuffer =
+        new ThreadLocal<byte[]>() {
+          @Override
+          protected byte[] initialValue() {
+            return new byte[16 * 1024];
+          }
+        };
+    private static final ThreadLocal<ReusableOutputStream> encodeStream =
+        new ThreadLocal<ReusableOutputStream>() {
+          @Override
+          protected ReusableOutputStream initialValue() {
+            return new ReusableOutputStream();
+          }
+        };
+
+    @NonNull final Bitmap.CompressFormat format;
+    final int quality;
+    final int inSampleSize;
+    @Nullable final BitmapPool pool;
+
+    BitmapAdapter() {
+      this(Bitmap.CompressFormat.PNG, 100, 1, null);
+    }
+
+    private BitmapAdapter(
+        @NonNull Bitmap.CompressFormat format,
+        int quality,
+        int inSampleSize,
+        @Nullable BitmapPool pool) {
+      super(true);
+      if (quality < 0 || quality > 100)
+        throw new IllegalArgumentException("Bitmap quality must be between 0 and 100: " + quality);
+      if (inSampleSize < 1)
+        throw new IllegalArgumentException("inSampleSize must be at least 1: " + inSampleSize);
+      this.format = format;
+      this.quality = quality;
+      this.inSampleSize = inSampleSize;
+      this.pool = pool;
+    }
+
+    /** Returns this adapter if the column uses the defaults. */
+    @NonNull
+    BitmapAdapter forColumn(@Nullable BitmapFormat columnFormat, @Nullable BitmapPool pool) {
+      if (columnFormat == null && pool == null) return this;
+      if (columnFormat == null) return new BitmapAdapter(format, quality, inSampleSize, pool);
+      return new BitmapAdapter(
+          columnFormat.format(), columnFormat.quality(), columnFormat.inSampleSize(), pool);
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return BLOB;
+    }
+
+    @Nullable
+    @Override
+    public Bitmap read(@NonNull Cursor cursor, int columnIndex) {
+      final byte[] blob = cursor.getBlob(columnIndex);
+      if (blob == null) return null;
+      if (inSampleSize == 1 && pool == null) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inTempStorage = decodeBuffer.get();
+        return BitmapFactory.decodeByteArray(blob, 0, blob.length, options);
+      }
+
+      final BitmapFactory.Options options = new BitmapFactory.Options();
+      options.inTempStorage = decodeBuffer.get();
+      options.inSampleSize = inSampleSize;
+      if (pool != null) {
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(blob, 0, blob.length, options);
+        options.inJustDecodeBounds = false;
+        if (options.outWidth > 0 && options.outHeight > 0) {
+          final int width = (options.outWidth + inSampleSize - 1) / inSampleSize;
+          final int height = (options.outHeight + inSampleSize - 1) / inSampleSize;
+          final Bitmap.Config config =
+              options.inPreferredConfig != null
+                  ? options.inPreferredConfig
+                  : Bitmap.Config.ARGB_8888;
+          options.inMutable = true;
+          options.inBitmap = pool.get(width, height, config);
+        }
+      }
+      try {
+        return BitmapFactory.decodeByteArray(blob, 0, blob.length, options);
+      } catch (IllegalArgumentException e) {
+        if (options.inBitmap == null) throw e;
+        // The pooled Bitmap can't hold this image
+        options.inBitmap = null;
+        return BitmapFactory.decodeByteArray(blob, 0, blob.length, options);
+      }
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull Bitmap value) {
+      final ReusableOutputStream stream = encodeStream.get();
+      stream.reset();
+      value.compress(format, quality, stream);
+      values.put(columnName, stream.toByteArray());
+      stream.trim();
+    }
+  }
+
+  /** Keeps its buffer between Bitmaps, unless a very large one grew it. */
+  private static final class ReusableOutputStream extends ByteArrayOutputStream {
+
+    private static final int MAX_RETAINED_SIZE = 512 * 1024;
+
+    ReusableOutputStream() {
+      super(32 * 1024);
+    }
+
+    void trim() {
+      if (buf.length > MAX_RETAINED_SIZE) buf = new byte[32 * 1024];
+    }
+  }
+
+  /** Wraps the adapter of the held type. Columns missing from a Cursor are deferred instead. */
+  static final class LazyBlobAdapter extends TypeAdapter<LazyBlob<?>> {
+
+    @NonNull final TypeAdapter<?> valueAdapter;
+
+    LazyBlobAdapter(@NonNull TypeAdapter<?> valueAdapter) {
+      super(true);
+      this.valueAdapter = valueAdapter;
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return valueAdapter.sqlType();
+    }
+
+    @NonNull
+    @Override
+    String storageType() {
+      return valueAdapter.storageType();
+    }
+
+    @Override
+    boolean accepts(int cursorType) {
+      return valueAdapter.accepts(cursorType);
+    }
+
+    @NonNull
+    @Override
+    public LazyBlob<?> read(@NonNull Cursor cursor, int columnIndex) {
+      return new LazyBlob<>(valueAdapter.read(cursor, columnIndex));
+    }
+
+    @Override
+    void load(
+        @NonNull Cursor cursor,
+        int columnIndex,
+        @NonNull FieldDelegate proxy,
+        @NonNull Object row) {
+      // The column was selected explicitly, so there's nothing left to defer
+      proxy.set(row, cursor.isNull(columnIndex) ? new LazyBlob<>() : read(cursor, columnIndex));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull LazyBlob<?> value) {
+      // Don't fetch a value just to write it back
+      if (!value.didLazyLoad() && !value.isDirty()) return;
+      final Object blobValue = value.get();
+      if (blobValue != null)
+        ((TypeAdapter<Object>) valueAdapter).write(values, columnName, blobValue);
+      else if (value.isDirty()) values.putNull(columnName);
+    }
+  }
+
+  /** The fallback for types without an adapter, created per field since it needs the type. */
+  static final class SerializedAdapter extends TypeAdapter<Object> {
+
+    @NonNull private final Class<?> type;
+    @NonNull private final String fieldName;
+    @NonNull private final BlobCodec codec;
+
+    SerializedAdapter(@NonNull Class<?> type, @NonNull String fieldName, @NonNull BlobCodec codec) {
+      super(true);
+      this.type = type;
+      this.fieldName = fieldName;
+      this.codec = codec;
+    }
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return BLOB;
+    }
+
+    @Nullable
+    @Override
+    public Object read(@NonNull Cursor cursor, int columnIndex) {
+      final byte[] blob = cursor.getBlob(columnIndex);
+      return blob != null ? codec.decode(blob, type) : null;
+    }
+
+    @Override
+    public void write(
+        @NonNull RowValues values, @NonNull String columnName, @NonNull Object value) {
+      if (!(value instanceof Serializable)) {
+        throw new IllegalStateException(
+            String.format(
+                "Class %s should be marked as "
+                    + "Serializable, or field/method %s should use the @ForeignKey "
+                    + "annotation instead of @Column.",
+                type.getName(), fieldName));
+      }
+      values.put(columnName, codec.encode(value));
+    }
+  }
+}
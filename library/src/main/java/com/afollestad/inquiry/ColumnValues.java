@@ -0,0 +1,72 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Reads the first column of a Cursor straight into a primitive array, for single-column selects.
+ * Null values are read as 0, or null for Strings. The Cursor is always closed.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+final class ColumnValues {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private ColumnValues() {}
+
+  private static int capacity(@NonNull Cursor cursor) {
+    final int count = cursor.getCount();
+    return count > 0 ? count : INITIAL_CAPACITY;
+  }
+
+  @NonNull
+  static long[] readLongs(@Nullable Cursor cursor) {
+    if (cursor == null) return new long[0];
+    try {
+      long[] values = new long[capacity(cursor)];
+      int size = 0;
+      while (cursor.moveToNext()) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = cursor.isNull(0) ? 0 : cursor.getLong(0);
+      }
+      return size == values.length ? values : Arrays.copyOf(values, size);
+    } finally {
+      cursor.close();
+    }
+  }
+
+  @NonNull
+  static double[] readDoubles(@Nullable Cursor cursor) {
+    if (cursor == null) return new double[0];
+    try {
+      double[] values = new double[capacity(cursor)];
+      int size = 0;
+      while (cursor.moveToNext()) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = cursor.isNull(0) ? 0 : cursor.getDouble(0);
+      }
+      return size == values.length ? values : Arrays.copyOf(values, size);
+    } finally {
+      cursor.close();
+    }
+  }
+
+  @NonNull
+  static String[] readStrings(@Nullable Cursor cursor) {
+    if (cursor == null) return new String[0];
+    try {
+      String[] values = new String[capacity(cursor)];
+      int size = 0;
+      while (cursor.moveToNext()) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = cursor.getString(0);
+      }
+      return size == values.length ? values : Arrays.copyOf(values, size);
+    } finally {
+      cursor.close();
+    }
+  }
+}
@@ -0,0 +1,305 @@
+package com.afollestad.inquiry;
+
+import android.database.AbstractCursor;
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The results of {@link Query#columns()}, stored as one array per selected column rather than one
+ * object per row. INTEGER columns are read into a long[], REAL columns into a double[], TEXT
+ * columns into a String[] and BLOB columns into a byte[][]. Null cells are tracked separately, and
+ * read as 0 from the primitive arrays.
+ *
+ * <p>Row objects can still be created on demand with {@link #row(int)}.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class ColumnarResult<RowType> {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  @NonNull private final Query<RowType, ?> query;
+  @NonNull private final RowMapper<RowType> mapper;
+  @NonNull private final String[] columnNames;
+  // Cursor.FIELD_TYPE_* of each column, which decides the type of its array
+  @NonNull private final int[] types;
+  @NonNull private final Object[] values;
+  @NonNull private final BitSet[] nulls;
+  private int size;
+
+  @Nullable private ColumnCursor rowCursor;
+  @Nullable private CursorBinding<RowType> rowBinding;
+
+  ColumnarResult(
+      @NonNull Query<RowType, ?> query,
+      @NonNull RowMapper<RowType> mapper,
+      @NonNull String[] columnNames) {
+    this.query = query;
+    this.mapper = mapper;
+    this.columnNames = columnNames;
+    this.types = new int[columnNames.length];
+    this.values = new Object[columnNames.length];
+    this.nulls = new BitSet[columnNames.length];
+
+    for (int i = 0; i < columnNames.length; i++) {
+      final int slot = mapper.getColumnSlot(columnNames[i]);
+      if (slot == -1) {
+        throw new IllegalStateException(
+            "Unable to map database column "
+                + columnNames[i]
+                + " to field/method in "
+                + mapper.rowClass.getName());
+      }
+      //noinspection ConstantConditions
+      types[i] = fieldType(mapper.adapters[slot].storageType());
+      values[i] = newArray(types[i], INITIAL_CAPACITY);
+      nulls[i] = new BitSet();
+    }
+  }
+
+  private static int fieldType(@NonNull String sqlType) {
+    switch (sqlType) {
+      case TypeAdapter.INTEGER:
+        return Cursor.FIELD_TYPE_INTEGER;
+      case TypeAdapter.REAL:
+        return Cursor.FIELD_TYPE_FLOAT;
+      case TypeAdapter.TEXT:
+        return Cursor.FIELD_TYPE_STRING;
+      default:
+        return Cursor.FIELD_TYPE_BLOB;
+    }
+  }
+
+  @NonNull
+  private static Object newArray(int type, int length) {
+    switch (type) {
+      case Cursor.FIELD_TYPE_INTEGER:
+        return new long[length];
+      case Cursor.FIELD_TYPE_FLOAT:
+        return new double[length];
+      case Cursor.FIELD_TYPE_STRING:
+        return new String[length];
+      default:
+        return new byte[length][];
+    }
+  }
+
+  @NonNull
+  private static Object copyOf(@NonNull Object array, int type, int length) {
+    switch (type) {
+      case Cursor.FIELD_TYPE_INTEGER:
+        return Arrays.copyOf((long[]) array, length);
+      case Cursor.FIELD_TYPE_FLOAT:
+        return Arrays.copyOf((double[]) array, length);
+      case Cursor.FIELD_TYPE_STRING:
+        return Arrays.copyOf((String[]) array, length);
+      default:
+        return Arrays.copyOf((byte[][]) array, length);
+    }
+  }
+
+  /** Reads every remaining row of the cursor, without closing it. */
+  void readAll(@NonNull Cursor cursor) {
+    final int[] indexes = new int[columnNames.length];
+    for (int i = 0; i < indexes.length; i++) indexes[i] = cursor.getColumnIndex(columnNames[i]);
+    int capacity = INITIAL_CAPACITY;
+
+    while (cursor.moveToNext()) {
+      if (size == capacity) {
+        capacity *= 2;
+        for (int i = 0; i < values.length; i++) values[i] = copyOf(values[i], types[i], capacity);
+      }
+      for (int i = 0; i < indexes.length; i++) {
+        final int index = indexes[i];
+        if (cursor.isNull(index)) {
+          nulls[i].set(size);
+          continue;
+        }
+        switch (types[i]) {
+          case Cursor.FIELD_TYPE_INTEGER:
+            ((long[]) values[i])[size] = cursor.getLong(index);
+            break;
+          case Cursor.FIELD_TYPE_FLOAT:
+            ((double[]) values[i])[size] = cursor.getDouble(index);
+            break;
+          case Cursor.FIELD_TYPE_STRING:
+            ((String[]) values[i])[size] = cursor.getString(index);
+            break;
+          default:
+            ((byte[][]) values[i])[size] = cursor.getBlob(index);
+            break;
+        }
+      }
+      size++;
+    }
+
+    if (size != capacity) {
+      for (int i = 0; i < values.length; i++) values[i] = copyOf(values[i], types[i], size);
+    }
+  }
+
+  /** The number of rows. */
+  public int size() {
+    return size;
+  }
+
+  @NonNull
+  public String[] columnNames() {
+    return columnNames.clone();
+  }
+
+  /** Returns the index of a selected column. */
+  public int column(@NonNull String name) {
+    for (int i = 0; i < columnNames.length; i++) {
+      if (columnNames[i].equalsIgnoreCase(name)) return i;
+    }
+    throw new IllegalArgumentException("Column " + name + " was not selected by this query.");
+  }
+
+  public boolean isNull(int column, int row) {
+    if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+    return nulls[column].get(row);
+  }
+
+  public boolean isNull(@NonNull String column, int row) {
+    return isNull(column(column), row);
+  }
+
+  @NonNull
+  private Object values(@NonNull String column, int type, @NonNull String typeName) {
+    final int index = column(column);
+    if (types[index] != type) {
+      throw new IllegalArgumentException("Column " + column + " isn't of type " + typeName + ".");
+    }
+    return values[index];
+  }
+
+  /** The values of an INTEGER column, null cells are 0. The array isn't copied. */
+  @NonNull
+  public long[] getLongs(@NonNull String column) {
+    return (long[]) values(column, Cursor.FIELD_TYPE_INTEGER, TypeAdapter.INTEGER);
+  }
+
+  /** The values of a REAL column, null cells are 0. The array isn't copied. */
+  @NonNull
+  public double[] getDoubles(@NonNull String column) {
+    return (double[]) values(column, Cursor.FIELD_TYPE_FLOAT, TypeAdapter.REAL);
+  }
+
+  /** The values of a TEXT column. The array isn't copied. */
+  @NonNull
+  public String[] getStrings(@NonNull String column) {
+    return (String[]) values(column, Cursor.FIELD_TYPE_STRING, TypeAdapter.TEXT);
+  }
+
+  /** The values of a BLOB column, as they're stored in the table. The array isn't copied. */
+  @NonNull
+  public byte[][] getBlobs(@NonNull String column) {
+    return (byte[][]) values(column, Cursor.FIELD_TYPE_BLOB, TypeAdapter.BLOB);
+  }
+
+  /** Creates a row object from the values at the given index, a new one on every call. */
+  @NonNull
+  public RowType row(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+    if (rowCursor == null) rowCursor = new ColumnCursor();
+    rowCursor.moveToPosition(index);
+    if (rowBinding == null) rowBinding = new CursorBinding<>(mapper, rowCursor);
+    return rowBinding.read(query, rowCursor);
+  }
+
+  /** Exposes the column arrays as a Cursor, so rows are created by the usual CursorBinding. */
+  private final class ColumnCursor extends AbstractCursor {
+
+    @Override
+    public int getCount() {
+      return size;
+    }
+
+    @Override
+    public String[] getColumnNames() {
+      return columnNames;
+    }
+
+    @Override
+    public int getType(int column) {
+      if (getPosition() >= 0 && getPosition() < size && nulls[column].get(getPosition()))
+        return Cursor.FIELD_TYPE_NULL;
+      return types[column];
+    }
+
+    @Override
+    public boolean isNull(int column) {
+      return nulls[column].get(getPosition());
+    }
+
+    @Override
+    public long getLong(int column) {
+      switch (types[column]) {
+        case Cursor.FIELD_TYPE_INTEGER:
+          return ((long[]) values[column])[getPosition()];
+        case Cursor.FIELD_TYPE_FLOAT:
+          return (long) ((double[]) values[column])[getPosition()];
+        default:
+          final String value = getString(column);
+          return value != null ? Long.parseLong(value) : 0;
+      }
+    }
+
+    @Override
+    public double getDouble(int column) {
+      switch (types[column]) {
+        case Cursor.FIELD_TYPE_INTEGER:
+          return ((long[]) values[column])[getPosition()];
+        case Cursor.FIELD_TYPE_FLOAT:
+          return ((double[]) values[column])[getPosition()];
+        default:
+          final String value = getString(column);
+          return value != null ? Double.parseDouble(value) : 0;
+      }
+    }
+
+    @Override
+    public int getInt(int column) {
+      return (int) getLong(column);
+    }
+
+    @Override
+    public short getShort(int column) {
+      return (short) getLong(column);
+    }
+
+    @Override
+    public float getFloat(int column) {
+      return (float) getDouble(column);
+    }
+
+    @Override
+    public String getString(int column) {
+      if (isNull(column)) return null;
+      switch (types[column]) {
+        case Cursor.FIELD_TYPE_INTEGER:
+          return Long.toString(getLong(column));
+        case Cursor.FIELD_TYPE_FLOAT:
+          return Double.toString(getDouble(column));
+        case Cursor.FIELD_TYPE_STRING:
+          return ((String[]) values[column])[getPosition()];
+        default:
+          throw new IllegalStateException("Column " + columnNames[column] + " is a BLOB.");
+      }
+    }
+
+    @Override
+    public byte[] getBlob(int column) {
+      if (types[column] == Cursor.FIELD_TYPE_BLOB) {
+        return ((byte[][]) values[column])[getPosition()];
+      }
+      final String value = getString(column);
+      return value != null ? value.getBytes() : null;
+    }
+  }
+}
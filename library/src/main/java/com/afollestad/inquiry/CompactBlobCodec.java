@@ -0,0 +1,443 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * The default {@link BlobCodec}. Values are written as a magic byte, a format version and a tagged
+ * value; numbers use var-ints. Values it can't write, including collections holding such values,
+ * fall back to Java serialization, which is also how BLOBs written by older versions are read.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+final class CompactBlobCodec implements BlobCodec {
+
+  static final CompactBlobCodec INSTANCE = new CompactBlobCodec();
+
+  // Java serialization streams start with 0xACED, so these never collide with them
+  private static final byte MAGIC = 0x49;
+  private static final byte VERSION = 1;
+
+  private static final int TAG_NULL = 0;
+  private static final int TAG_STRING = 1;
+  private static final int TAG_INT = 2;
+  private static final int TAG_LONG = 3;
+  private static final int TAG_SHORT = 4;
+  private static final int TAG_BYTE = 5;
+  private static final int TAG_FLOAT = 6;
+  private static final int TAG_DOUBLE = 7;
+  private static final int TAG_BOOLEAN = 8;
+  private static final int TAG_CHAR = 9;
+  private static final int TAG_DATE = 10;
+  private static final int TAG_BYTE_ARRAY = 20;
+  private static final int TAG_INT_ARRAY = 21;
+  private static final int TAG_LONG_ARRAY = 22;
+  private static final int TAG_FLOAT_ARRAY = 23;
+  private static final int TAG_DOUBLE_ARRAY = 24;
+  private static final int TAG_BOOLEAN_ARRAY = 25;
+  private static final int TAG_STRING_ARRAY = 26;
+  private static final int TAG_ARRAY_LIST = 30;
+  private static final int TAG_LINKED_LIST = 31;
+  private static final int TAG_HASH_SET = 32;
+  private static final int TAG_LINKED_HASH_SET = 33;
+  private static final int TAG_HASH_MAP = 34;
+  private static final int TAG_LINKED_HASH_MAP = 35;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private CompactBlobCodec() {}
+
+  static boolean isJavaSerialization(@NonNull byte[] data) {
+    return data.length >= 2 && data[0] == (byte) 0xAC && data[1] == (byte) 0xED;
+  }
+
+  @NonNull
+  @Override
+  public byte[] encode(@NonNull Object value) {
+    final Output out = new Output(64);
+    out.writeByte(MAGIC);
+    out.writeByte(VERSION);
+    if (!writeValue(out, value)) return Converter.serializeObject(value);
+    return out.toByteArray();
+  }
+
+  @Nullable
+  @Override
+  public Object decode(@NonNull byte[] data, @NonNull Class<?> type) {
+    if (isJavaSerialization(data)) return Converter.deserializeObject(data, type);
+    if (data.length < 2 || data[0] != MAGIC)
+      throw new IllegalStateException("Unknown BLOB format for type " + type.getName());
+    if (data[1] != VERSION)
+      throw new IllegalStateException(
+          "BLOB of type " + type.getName() + " uses unsupported format version " + data[1]);
+    return readValue(new Input(data, 2));
+  }
+
+  /** Returns false if the value (or a value it contains) isn't supported. */
+  private static boolean writeValue(@NonNull Output out, @Nullable Object value) {
+    if (value == null) {
+      out.writeVarInt(TAG_NULL);
+      return true;
+    }
+    final Class<?> cls = value.getClass();
+    if (cls == String.class) {
+      out.writeVarInt(TAG_STRING);
+      out.writeString((String) value);
+    } else if (cls == Integer.class) {
+      out.writeVarInt(TAG_INT);
+      out.writeVarLong((Integer) value);
+    } else if (cls == Long.class) {
+      out.writeVarInt(TAG_LONG);
+      out.writeVarLong((Long) value);
+    } else if (cls == Short.class) {
+      out.writeVarInt(TAG_SHORT);
+      out.writeVarLong((Short) value);
+    } else if (cls == Byte.class) {
+      out.writeVarInt(TAG_BYTE);
+      out.writeByte((Byte) value);
+    } else if (cls == Float.class) {
+      out.writeVarInt(TAG_FLOAT);
+      out.writeFixed(Float.floatToIntBits((Float) value), 4);
+    } else if (cls == Double.class) {
+      out.writeVarInt(TAG_DOUBLE);
+      out.writeFixed(Double.doubleToLongBits((Double) value), 8);
+    } else if (cls == Boolean.class) {
+      out.writeVarInt(TAG_BOOLEAN);
+      out.writeByte((Boolean) value ? 1 : 0);
+    } else if (cls == Character.class) {
+      out.writeVarInt(TAG_CHAR);
+      out.writeVarLong((Character) value);
+    } else if (cls == Date.class) {
+      out.writeVarInt(TAG_DATE);
+      out.writeVarLong(((Date) value).getTime());
+    } else if (cls == byte[].class) {
+      final byte[] array = (byte[]) value;
+      out.writeVarInt(TAG_BYTE_ARRAY);
+      out.writeVarInt(array.length);
+      out.writeBytes(array, 0, array.length);
+    } else if (cls == int[].class) {
+      final int[] array = (int[]) value;
+      out.writeVarInt(TAG_INT_ARRAY);
+      out.writeVarInt(array.length);
+      for (int item : array) out.writeVarLong(item);
+    } else if (cls == long[].class) {
+      final long[] array = (long[]) value;
+      out.writeVarInt(TAG_LONG_ARRAY);
+      out.writeVarInt(array.length);
+      for (long item : array) out.writeVarLong(item);
+    } else if (cls == float[].class) {
+      final float[] array = (float[]) value;
+      out.writeVarInt(TAG_FLOAT_ARRAY);
+      out.writeVarInt(array.length);
+      for (float item : array) out.writeFixed(Float.floatToIntBits(item), 4);
+    } else if (cls == double[].class) {
+      final double[] array = (double[]) value;
+      out.writeVarInt(TAG_DOUBLE_ARRAY);
+      out.writeVarInt(array.length);
+      for (double item : array) out.writeFixed(Double.doubleToLongBits(item), 8);
+    } else if (cls == boolean[].class) {
+      final boolean[] array = (boolean[]) value;
+      out.writeVarInt(TAG_BOOLEAN_ARRAY);
+      out.writeVarInt(array.length);
+      for (boolean item : array) out.writeByte(item ? 1 : 0);
+    } else if (cls == String[].class) {
+      final String[] array = (String[]) value;
+      out.writeVarInt(TAG_STRING_ARRAY);
+      out.writeVarInt(array.length);
+      for (String item : array) {
+        if (!writeValue(out, item)) return false;
+      }
+    } else if (cls == ArrayList.class) {
+      return writeCollection(out, TAG_ARRAY_LIST, (Collection<?>) value);
+    } else if (cls == LinkedList.class) {
+      return writeCollection(out, TAG_LINKED_LIST, (Collection<?>) value);
+    } else if (cls == HashSet.class) {
+      return writeCollection(out, TAG_HASH_SET, (Collection<?>) value);
+    } else if (cls == LinkedHashSet.class) {
+      return writeCollection(out, TAG_LINKED_HASH_SET, (Collection<?>) value);
+    } else if (cls == HashMap.class) {
+      return writeMap(out, TAG_HASH_MAP, (Map<?, ?>) value);
+    } else if (cls == LinkedHashMap.class) {
+      return writeMap(out, TAG_LINKED_HASH_MAP, (Map<?, ?>) value);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean writeCollection(
+      @NonNull Output out, int tag, @NonNull Collection<?> collection) {
+    out.writeVarInt(tag);
+    out.writeVarInt(collection.size());
+    for (Object item : collection) {
+      if (!writeValue(out, item)) return false;
+    }
+    return true;
+  }
+
+  private static boolean writeMap(@NonNull Output out, int tag, @NonNull Map<?, ?> map) {
+    out.writeVarInt(tag);
+    out.writeVarInt(map.size());
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      if (!writeValue(out, entry.getKey()) || !writeValue(out, entry.getValue())) return false;
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  private static Object readValue(@NonNull Input in) {
+    final int tag = in.readVarInt();
+    switch (tag) {
+      case TAG_NULL:
+        return null;
+      case TAG_STRING:
+        return in.readString();
+      case TAG_INT:
+        return (int) in.readVarLong();
+      case TAG_LONG:
+        return in.readVarLong();
+      case TAG_SHORT:
+        return (short) in.readVarLong();
+      case TAG_BYTE:
+        return in.readByte();
+      case TAG_FLOAT:
+        return Float.intBitsToFloat((int) in.readFixed(4));
+      case TAG_DOUBLE:
+        return Double.longBitsToDouble(in.readFixed(8));
+      case TAG_BOOLEAN:
+        return in.readByte() != 0;
+      case TAG_CHAR:
+        return (char) in.readVarLong();
+      case TAG_DATE:
+        return new Date(in.readVarLong());
+      case TAG_BYTE_ARRAY:
+        return in.readBytes(in.readVarInt());
+      case TAG_INT_ARRAY:
+        {
+          final int[] array = new int[in.readVarInt()];
+          for (int i = 0; i < array.length; i++) array[i] = (int) in.readVarLong();
+          return array;
+        }
+      case TAG_LONG_ARRAY:
+        {
+          final long[] array = new long[in.readVarInt()];
+          for (int i = 0; i < array.length; i++) array[i] = in.readVarLong();
+          return array;
+        }
+      case TAG_FLOAT_ARRAY:
+        {
+          final float[] array = new float[in.readVarInt()];
+          for (int i = 0; i < array.length; i++)
+            array[i] = Float.intBitsToFloat((int) in.readFixed(4));
+          return array;
+        }
+      case TAG_DOUBLE_ARRAY:
+        {
+          final double[] array = new double[in.readVarInt()];
+          for (int i = 0; i < array.length; i++)
+            array[i] = Double.longBitsToDouble(in.readFixed(8));
+          return array;
+        }
+      case TAG_BOOLEAN_ARRAY:
+        {
+          final boolean[] array = new boolean[in.readVarInt()];
+          for (int i = 0; i < array.length; i++) array[i] = in.readByte() != 0;
+          return array;
+        }
+      case TAG_STRING_ARRAY:
+        {
+          final String[] array = new String[in.readVarInt()];
+          for (int i = 0; i < array.length; i++) array[i] = (String) readValue(in);
+          return array;
+        }
+      case TAG_ARRAY_LIST:
+        {
+          final int size = in.readVarInt();
+          return readCollection(in, new ArrayList<>(size), size);
+        }
+      case TAG_LINKED_LIST:
+        return readCollection(in, new LinkedList<>(), in.readVarInt());
+      case TAG_HASH_SET:
+        {
+          final int size = in.readVarInt();
+          return readCollection(in, new HashSet<>(capacityFor(size)), size);
+        }
+      case TAG_LINKED_HASH_SET:
+        {
+          final int size = in.readVarInt();
+          return readCollection(in, new LinkedHashSet<>(capacityFor(size)), size);
+        }
+      case TAG_HASH_MAP:
+        {
+          final int size = in.readVarInt();
+          return readMap(in, new HashMap<>(capacityFor(size)), size);
+        }
+      case TAG_LINKED_HASH_MAP:
+        {
+          final int size = in.readVarInt();
+          return readMap(in, new LinkedHashMap<>(capacityFor(size)), size);
+        }
+      default:
+        throw new IllegalStateException("Unknown value tag in BLOB: " + tag);
+    }
+  }
+
+  private static int capacityFor(int size) {
+    return Math.max((int) (size / .75f) + 1, 16);
+  }
+
+  @NonNull
+  private static Collection<Object> readCollection(
+      @NonNull Input in, @NonNull Collection<Object> collection, int size) {
+    for (int i = 0; i < size; i++) collection.add(readValue(in));
+    return collection;
+  }
+
+  @NonNull
+  private static Map<Object, Object> readMap(
+      @NonNull Input in, @NonNull Map<Object, Object> map, int size) {
+    for (int i = 0; i < size; i++) map.put(readValue(in), readValue(in));
+    return map;
+  }
+
+  private static final class Output {
+
+    private byte[] buffer;
+    private int size;
+
+    Output(int capacity) {
+      this.buffer = new byte[capacity];
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra <= buffer.length) return;
+      final byte[] newBuffer = new byte[Math.max(buffer.length * 2, size + extra)];
+      System.arraycopy(buffer, 0, newBuffer, 0, size);
+      buffer = newBuffer;
+    }
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) value;
+    }
+
+    void writeBytes(byte[] bytes, int offset, int length) {
+      ensureCapacity(length);
+      System.arraycopy(bytes, offset, buffer, size, length);
+      size += length;
+    }
+
+    /** Unsigned, used for tags and lengths. */
+    void writeVarInt(int value) {
+      ensureCapacity(5);
+      while ((value & ~0x7F) != 0) {
+        buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    /** Zig-zag encoded, so small negative numbers stay small too. */
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      long zigZag = (value << 1) ^ (value >> 63);
+      while ((zigZag & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((zigZag & 0x7F) | 0x80);
+        zigZag >>>= 7;
+      }
+      buffer[size++] = (byte) zigZag;
+    }
+
+    void writeFixed(long value, int byteCount) {
+      ensureCapacity(byteCount);
+      for (int i = byteCount - 1; i >= 0; i--) buffer[size++] = (byte) (value >>> (i * 8));
+    }
+
+    void writeString(String value) {
+      final byte[] bytes = value.getBytes(UTF_8);
+      writeVarInt(bytes.length);
+      writeBytes(bytes, 0, bytes.length);
+    }
+
+    byte[] toByteArray() {
+      final byte[] result = new byte[size];
+      System.arraycopy(buffer, 0, result, 0, size);
+      return result;
+    }
+  }
+
+  private static final class Input {
+
+    private final byte[] data;
+    private int position;
+
+    Input(byte[] data, int position) {
+      this.data = data;
+      this.position = position;
+    }
+
+    private void require(int count) {
+      if (count < 0 || position + count > data.length)
+        throw new IllegalStateException("BLOB ended unexpectedly at byte " + position);
+    }
+
+    byte readByte() {
+      require(1);
+      return data[position++];
+    }
+
+    byte[] readBytes(int length) {
+      require(length);
+      final byte[] result = new byte[length];
+      System.arraycopy(data, position, result, 0, length);
+      position += length;
+      return result;
+    }
+
+    int readVarInt() {
+      int result = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        final byte b = readByte();
+        result |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) return result;
+      }
+      throw new IllegalStateException("Malformed var-int in BLOB at byte " + position);
+    }
+
+    long readVarLong() {
+      long zigZag = 0;
+      for (int shift = 0; shift < 70; shift += 7) {
+        final byte b = readByte();
+        zigZag |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) return (zigZag >>> 1) ^ -(zigZag & 1);
+      }
+      throw new IllegalStateException("Malformed var-int in BLOB at byte " + position);
+    }
+
+    long readFixed(int byteCount) {
+      require(byteCount);
+      long result = 0;
+      for (int i = 0; i < byteCount; i++) result = (result << 8) | (data[position++] & 0xFF);
+      return result;
+    }
+
+    String readString() {
+      final int length = readVarInt();
+      require(length);
+      final String result = new String(data, position, length, UTF_8);
+      position += length;
+      return result;
+    }
+  }
+}
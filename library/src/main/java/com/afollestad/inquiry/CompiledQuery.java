@@ -0,0 +1,175 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A SELECT query which is resolved once by {@link Query#compile()}, and then executed any number of
+ * times with new where arguments. The SQL is built up front and doesn't change between executions,
+ * so SQLite reuses its compiled program as well.
+ *
+ * <p>Instances are immutable and can be shared across threads. Changes made to the original query
+ * afterwards don't affect them.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class CompiledQuery<RowType> {
+
+  @NonNull private final Inquiry inquiry;
+  // A query of only the table or content URI, which foreign keys and LazyBlobs load through
+  @NonNull private final Query<RowType, ?> rowSource;
+  @NonNull private final RowMapper<RowType> mapper;
+  @Nullable private final String tableName;
+  @Nullable private final Uri contentUri;
+  @NonNull private final String[] projection;
+  @Nullable private final String where;
+  @Nullable private final Object[] whereArgs;
+  @Nullable private final String sort;
+  private final int limit;
+  // Null for content providers, which build their own SQL
+  @Nullable private final String sql;
+  // Selects a window of rows, with the limit and offset bound as the last two arguments
+  @Nullable private final String pageSql;
+  private final int argCount;
+
+  CompiledQuery(
+      @NonNull Inquiry inquiry,
+      @NonNull RowMapper<RowType> mapper,
+      @Nullable String tableName,
+      @Nullable Uri contentUri,
+      @NonNull String[] projection,
+      @Nullable String where,
+      @Nullable Object[] whereArgs,
+      @Nullable String sort,
+      int limit) {
+    this.inquiry = inquiry;
+    this.mapper = mapper;
+    this.tableName = tableName;
+    this.contentUri = contentUri;
+    this.projection = projection;
+    this.where = where;
+    this.whereArgs = whereArgs;
+    this.sort = sort;
+    this.limit = limit;
+    this.argCount = where != null ? Utils.countOccurrences(where, '?') : 0;
+    this.rowSource = new Query<>(inquiry, tableName, contentUri, mapper.rowClass);
+
+    if (contentUri != null) {
+      this.sql = null;
+      this.pageSql = null;
+      return;
+    } else if (tableName == null) {
+      throw new IllegalStateException("Table name was null.");
+    }
+    this.sql = SQLiteHelper.selectSql(tableName, projection, where, sort, limit);
+    this.pageSql =
+        SQLiteHelper.selectSql(tableName, projection, where, sort, 0) + " LIMIT ? OFFSET ?";
+  }
+
+  /** The SQL which is executed, or null if this query reads from a content provider. */
+  @Nullable
+  public String getSql() {
+    return sql;
+  }
+
+  @Nullable
+  private Object[] resolveArgs(@Nullable Object[] args) {
+    if (args == null || args.length == 0) return whereArgs;
+    if (args.length != argCount) {
+      throw new IllegalArgumentException(
+          "Expected " + argCount + " where args, but " + args.length + " were given.");
+    }
+    return Utils.bindableArray(args);
+  }
+
+  @Nullable
+  private Cursor open(@Nullable Object[] args) {
+    final Inquiry inquiry = inquiry();
+    if (sql == null) {
+      return inquiry
+          .context
+          .getContentResolver()
+          .query(
+              contentUri,
+              projection,
+              where,
+              Utils.stringifyArray(resolveArgs(args)),
+              Utils.providerSortOrder(sort, limit, 0));
+    }
+    return inquiry._getDatabase().rawQuery(sql, resolveArgs(args), tableName, where);
+  }
+
+  @NonNull
+  private Inquiry inquiry() {
+    if (inquiry.context == null)
+      throw new IllegalStateException("The Inquiry instance of this query was destroyed.");
+    return inquiry;
+  }
+
+  /**
+   * Runs the query and returns every row, or null if there are none.
+   *
+   * @param args Replace the where arguments given when the query was built, in order. If none are
+   *     passed, the original arguments are used.
+   */
+  @Nullable
+  public RowType[] execute(@Nullable Object... args) {
+    return read(open(args));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  private RowType[] read(@Nullable Cursor cursor) {
+    if (cursor == null) return null;
+    final List<RowType> results = new ArrayList<>();
+    try {
+      CursorBinding<RowType> binding = null;
+      while (cursor.moveToNext()) {
+        if (binding == null) binding = new CursorBinding<>(mapper, cursor);
+        results.add(binding.read(rowSource, cursor));
+      }
+    } finally {
+      cursor.close();
+    }
+    if (results.isEmpty()) return null;
+    return results.toArray((RowType[]) Array.newInstance(mapper.rowClass, results.size()));
+  }
+
+  /** Like {@link #execute(Object...)}, but maps rows one at a time as they're iterated. */
+  @NonNull
+  public RowIterator<RowType> iterate(@Nullable Object... args) {
+    return new RowIterator<>(rowSource, mapper, open(args));
+  }
+
+  /** The number of rows this query returns with its original where arguments. */
+  long count() {
+    return Query.count(inquiry(), tableName, contentUri, where, whereArgs, limit);
+  }
+
+  /** Returns up to count rows, starting at the given offset of the results. */
+  @Nullable
+  RowType[] executePage(int offset, int count) {
+    final Inquiry inquiry = inquiry();
+    if (limit > 0) count = Math.min(count, limit - offset);
+    if (count <= 0) return null;
+    if (pageSql == null) {
+      return read(
+          inquiry
+              .context
+              .getContentResolver()
+              .query(
+                  contentUri,
+                  projection,
+                  where,
+                  Utils.stringifyArray(whereArgs),
+                  Utils.providerSortOrder(sort, count, offset)));
+    }
+    final Object[] args = Utils.append(Utils.append(whereArgs, count), offset);
+    return read(inquiry._getDatabase().rawQuery(pageSql, args, tableName, where));
+  }
+}
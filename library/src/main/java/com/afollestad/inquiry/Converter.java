@@ -1,20 +1,14 @@
 package com.afollestad.inquiry;
 
-import static com.afollestad.inquiry.DataType.BLOB;
-import static com.afollestad.inquiry.DataType.INTEGER;
-import static com.afollestad.inquiry.DataType.REAL;
-import static com.afollestad.inquiry.DataType.TEXT;
-import static com.afollestad.inquiry.DataType.UNKNOWN;
-
 import android.database.Cursor;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.net.Uri;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
 import com.afollestad.inquiry.annotations.Column;
 import com.afollestad.inquiry.annotations.ForeignKey;
 import com.afollestad.inquiry.annotations.Table;
+import com.afollestad.inquiry.lazyloading.LazyBlob;
 import com.afollestad.inquiry.lazyloading.LazyLoaderList;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -23,13 +17,11 @@ import java.io.ObjectInput;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
-import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -46,12 +38,12 @@ class Converter {
     return name;
   }
 
-  static String getClassSchema(Class<?> cls) {
+  static String getClassSchema(Class<?> cls, @NonNull TypeAdapterRegistry adapters) {
     StringBuilder sb = new StringBuilder();
     List<FieldDelegate> proxyList = classFieldDelegatesReadOnly(cls);
 
     for (FieldDelegate proxy : proxyList) {
-      final String schema = proxy.schema();
+      final String schema = proxy.schema(adapters.sqlType(proxy));
       if (schema == null) continue;
       if (sb.length() > 0) sb.append(", ");
       sb.append(schema);
@@ -63,20 +55,6 @@ class Converter {
     return sb.toString();
   }
 
-  @DataType.TypeDef
-  private static int cursorTypeToColumnType(int cursorType) {
-    switch (cursorType) {
-      default:
-        return BLOB;
-      case Cursor.FIELD_TYPE_FLOAT:
-        return REAL;
-      case Cursor.FIELD_TYPE_INTEGER:
-        return INTEGER;
-      case Cursor.FIELD_TYPE_STRING:
-        return TEXT;
-    }
-  }
-
   /**
    * @param inquiry An Inquiry instance
    * @param tableName The name of the child table
@@ -148,233 +126,115 @@ class Converter {
     }
   }
 
-  private static void loadFieldIntoRow(
-      Query query,
-      Cursor cursor,
-      FieldDelegate proxy,
-      Object row,
-      int columnIndex,
-      @DataType.TypeDef int columnType)
-      throws Exception {
+  static void loadForeignKey(Query query, FieldDelegate proxy, Object row) {
     Class<?> fieldType = proxy.getType();
     ForeignKey fkAnn = proxy.getForeignKey();
-    if (fkAnn != null) {
-      Class<?> childType = Utils.getGenericTypeOfProxy(proxy);
+    Class<?> childType = Utils.getGenericTypeOfProxy(proxy);
 
-      if (Utils.classExtendsLazyLoader(fieldType)) {
-        @SuppressWarnings("unchecked")
-        LazyLoaderList loader =
-            new LazyLoaderList(
-                query.getInquiryInstance(),
-                fkAnn.tableName(),
-                fkAnn.foreignColumnName(),
-                fkAnn.inverseFieldName(),
-                row,
-                childType) {
-              @SuppressWarnings("unchecked")
-              @Override
-              protected void _performLazyLoad() {
-                this.items =
-                    (List)
-                        processForeignKey(
-                            this.inquiry,
-                            this.tableName,
-                            this.foreignColumnName,
-                            this.inverseFieldName,
-                            this.row,
-                            null,
-                            this.childType);
-              }
-            };
-        proxy.set(row, loader);
-        return;
-      }
-
-      Object value =
-          processForeignKey(
+    if (Utils.classExtendsLazyLoader(fieldType)) {
+      @SuppressWarnings("unchecked")
+      LazyLoaderList loader =
+          new LazyLoaderList(
               query.getInquiryInstance(),
               fkAnn.tableName(),
               fkAnn.foreignColumnName(),
               fkAnn.inverseFieldName(),
               row,
-              fieldType,
-              childType);
-      proxy.set(row, value);
-      return;
-    }
-
-    if (cursor.isNull(columnIndex)) {
-      if (fieldType == short.class
-          || fieldType == Short.class
-          || fieldType == int.class
-          || fieldType == Integer.class
-          || fieldType == long.class
-          || fieldType == Long.class) {
-        proxy.set(row, 0);
-      } else if (fieldType == float.class || fieldType == Float.class) {
-        proxy.set(row, 0f);
-      } else if (fieldType == double.class || fieldType == Double.class) {
-        proxy.set(row, 0d);
-      } else if (fieldType == boolean.class || fieldType == Boolean.class) {
-        proxy.set(row, false);
-      } else {
-        proxy.set(row, null);
-      }
+              childType) {
+            @SuppressWarnings("unchecked")
+            @Override
+            protected void _performLazyLoad() {
+              this.items =
+                  (List)
+                      processForeignKey(
+                          this.inquiry,
+                          this.tableName,
+                          this.foreignColumnName,
+                          this.inverseFieldName,
+                          this.row,
+                          null,
+                          this.childType);
+            }
+          };
+      proxy.set(row, loader);
       return;
     }
 
-    final String columnName = proxy.name();
-    switch (columnType) {
-      case BLOB:
-        byte[] blob = cursor.getBlob(columnIndex);
-        if (blob == null) proxy.set(row, null);
-        else if (fieldType == byte.class || fieldType == Byte.class) proxy.set(row, blob[0]);
-        else if (fieldType == byte[].class || fieldType == Byte[].class) proxy.set(row, blob);
-        else if (fieldType == Bitmap.class)
-          proxy.set(row, BitmapFactory.decodeByteArray(blob, 0, blob.length));
-        else proxy.set(row, deserializeObject(blob, fieldType));
-        break;
-      case REAL:
-        if (fieldType == short.class || fieldType == Short.class)
-          proxy.set(row, (short) cursor.getFloat(columnIndex));
-        else if (fieldType == int.class || fieldType == Integer.class)
-          proxy.set(row, (int) cursor.getFloat(columnIndex));
-        else if (fieldType == long.class || fieldType == Long.class)
-          proxy.set(row, (long) cursor.getFloat(columnIndex));
-        else if (fieldType == float.class || fieldType == Float.class)
-          proxy.set(row, cursor.getFloat(columnIndex));
-        else if (fieldType == double.class || fieldType == Double.class)
-          proxy.set(row, cursor.getDouble(columnIndex));
-        else
-          throw new IllegalStateException(
-              String.format(
-                  "Column %s of type REAL "
-                      + "(float/double) doesn't match field/method of type %s",
-                  columnName, fieldType.getName()));
-        break;
-      case INTEGER:
-        if (fieldType == short.class || fieldType == Short.class)
-          proxy.set(row, cursor.getShort(columnIndex));
-        else if (fieldType == int.class || fieldType == Integer.class)
-          proxy.set(row, cursor.getInt(columnIndex));
-        else if (fieldType == long.class || fieldType == Long.class)
-          proxy.set(row, cursor.getLong(columnIndex));
-        else if (fieldType == boolean.class || fieldType == Boolean.class)
-          proxy.set(row, cursor.getInt(columnIndex) == 1);
-        else if (fieldType == float.class || fieldType == Float.class)
-          proxy.set(row, (float) cursor.getInt(columnIndex));
-        else if (fieldType == double.class || fieldType == Double.class)
-          proxy.set(row, (double) cursor.getInt(columnIndex));
-        else
-          throw new IllegalStateException(
-              String.format(
-                  "Column %s of type INTEGER " + "(decimal) doesn't match field/method of type %s",
-                  columnName, fieldType.getName()));
-        break;
-      case TEXT:
-        String text = cursor.getString(columnIndex);
-        if (fieldType == String.class || fieldType == CharSequence.class) proxy.set(row, text);
-        else if (fieldType == char[].class || fieldType == Character[].class)
-          proxy.set(row, text != null && text.length() > 0 ? text.toCharArray() : null);
-        else if (fieldType == char.class || fieldType == Character.class)
-          proxy.set(row, text != null && text.length() > 0 ? text.charAt(0) : null);
-        else
-          throw new IllegalStateException(
-              String.format(
-                  "Column %s of type TEXT " + "(string) doesn't match field/method of type %s",
-                  columnName, fieldType.getName()));
-        break;
-    }
+    Object value =
+        processForeignKey(
+            query.getInquiryInstance(),
+            fkAnn.tableName(),
+            fkAnn.foreignColumnName(),
+            fkAnn.inverseFieldName(),
+            row,
+            fieldType,
+            childType);
+    proxy.set(row, value);
   }
 
-  private static HashMap<String, FieldDelegate> buildProxyCache(
-      @NonNull Class<?> cls,
-      @Nullable Class<?> builderCls,
-      @NonNull List<FieldDelegate> outForeignKeys) {
-    final HashMap<String, FieldDelegate> cacheMap = new HashMap<>();
-    final List<FieldDelegate> proxiesList = classFieldDelegates(cls, false, builderCls);
-
-    for (FieldDelegate proxy : proxiesList) {
-      ForeignKey fkAnn = proxy.getForeignKey();
-      if (fkAnn != null) {
-        outForeignKeys.add(proxy);
-        continue;
-      }
-      cacheMap.put(proxy.name(), proxy);
-    }
-
-    return cacheMap;
+  static void deferLazyBlob(
+      @NonNull Query query,
+      @NonNull FieldDelegate proxy,
+      @NonNull final TypeAdapter<?> adapter,
+      long rowId,
+      @NonNull Object row) {
+    final LazyBlob<?> blob =
+        new LazyBlob<Object>(
+            query.getInquiryInstance(),
+            query.getTableName(),
+            query.getContentUri(),
+            proxy.name(),
+            rowId) {
+          @Override
+          protected Object _performLazyLoad() {
+            return loadLazyBlob(
+                this.inquiry,
+                this.tableName,
+                this.contentUri,
+                this.columnName,
+                this.rowId,
+                adapter);
+          }
+        };
+    proxy.set(row, blob);
   }
 
-  static <T> T cursorToObject(Query query, Cursor cursor, Class<T> cls) {
-    T resultObject = null;
-    Object rowBuilder = null;
-    Object objectToActOn;
-
-    final Class<?> builderCls = query.getInquiryInstance().getBuilderClass(cls);
-    if (builderCls != null) {
-      rowBuilder = Utils.newInstance(query.getInquiryInstance(), builderCls);
-      objectToActOn = rowBuilder;
+  @Nullable
+  private static Object loadLazyBlob(
+      @NonNull Inquiry inquiry,
+      @Nullable String tableName,
+      @Nullable Uri contentUri,
+      @NonNull String columnName,
+      long rowId,
+      @NonNull TypeAdapter<?> adapter) {
+    final String[] projection = new String[] {columnName};
+    final Cursor cursor;
+    if (contentUri != null) {
+      cursor =
+          inquiry
+              .context
+              .getContentResolver()
+              .query(contentUri, projection, "_id = ?", new String[] {Long.toString(rowId)}, null);
+    } else if (tableName != null) {
+      cursor =
+          inquiry
+              ._getDatabase()
+              .query(tableName, projection, "_id = ?", new Object[] {rowId}, null, 1);
     } else {
-      resultObject = Utils.newInstance(query.getInquiryInstance(), cls);
-      objectToActOn = resultObject;
+      throw new IllegalStateException("LazyBlob " + columnName + " has no table to load from.");
     }
-
-    final List<FieldDelegate> foreignKeyList = new ArrayList<>(0);
-    final HashMap<String, FieldDelegate> cacheMap =
-        buildProxyCache(cls, builderCls, foreignKeyList);
-
-    int columnIndex;
-    for (columnIndex = 0; columnIndex < cursor.getColumnCount(); columnIndex++) {
-      String columnName = cursor.getColumnName(columnIndex);
-      if (columnName == null)
-        throw new IllegalStateException(
-            "Cursor returned null for the columnName at index " + columnIndex);
-      int columnType = cursorTypeToColumnType(cursor.getType(columnIndex));
-      try {
-        final FieldDelegate proxy = cacheMap.get(columnName);
-        if (proxy == null) {
-          throw new IllegalStateException(
-              "Unable to map database column "
-                  + columnName
-                  + " to field/method in "
-                  + cls.getName());
-        }
-        loadFieldIntoRow(query, cursor, proxy, objectToActOn, columnIndex, columnType);
-      } catch (Exception e) {
-        Utils.wrapInReIfNecessary(e);
-      }
-    }
-
-    if (foreignKeyList.size() > 0) {
-      for (FieldDelegate proxy : foreignKeyList) {
-        try {
-          loadFieldIntoRow(query, cursor, proxy, objectToActOn, columnIndex, UNKNOWN);
-        } catch (Throwable t) {
-          Utils.wrapInReIfNecessary(t);
-        }
-      }
+    if (cursor == null) return null;
+    try {
+      if (!cursor.moveToFirst() || cursor.isNull(0)) return null;
+      return adapter.read(cursor, 0);
+    } finally {
+      cursor.close();
     }
+  }
 
-    if (rowBuilder != null) {
-      Method buildMethod = query.getInquiryInstance().getBuildMethod(cls, builderCls);
-      if (buildMethod == null) {
-        throw new IllegalStateException(
-            "Builder "
-                + builderCls.getName()
-                + " must "
-                + "contain a void method called build() which returns "
-                + cls.getName());
-      }
-      try {
-        //noinspection unchecked
-        return (T) buildMethod.invoke(rowBuilder);
-      } catch (Exception e) {
-        throw new IllegalStateException("Failed to invoke build() of " + builderCls.getName(), e);
-      }
-    } else {
-      return resultObject;
-    }
+  static <T> T cursorToObject(Query query, Cursor cursor, Class<T> cls) {
+    final RowMapper<T> mapper = RowMapper.get(query.getInquiryInstance(), cls);
+    return new CursorBinding<>(mapper, cursor).read(query, cursor);
   }
 
   @Nullable
@@ -411,6 +271,8 @@ class Converter {
     List<FieldDelegate> proxyList = classFieldDelegatesReadOnly(cls);
     for (FieldDelegate proxy : proxyList) {
       if (proxy.isForeignKey() || proxy.ignore()) continue;
+      // LazyBlobs are fetched on their own when they're accessed
+      if (LazyBlob.class.isAssignableFrom(proxy.getType())) continue;
       projectionList.add(proxy.name());
     }
     return projectionList.toArray(new String[projectionList.size()]);
@@ -499,16 +361,19 @@ class Converter {
     return proxiesList;
   }
 
+  /** @param adapters The type adapters of the proxies, at the same indexes. */
   @Nullable
   static RowValues classToValues(
       @NonNull Object row,
       @Nullable String[] projectionArray,
       @NonNull List<FieldDelegate> proxiesList,
+      @NonNull TypeAdapter<?>[] adapters,
       @NonNull Map<Object, FieldDelegate> foreignChildrenMap) {
     try {
       RowValues resultValues = new RowValues();
       int columnCount = 0;
-      for (FieldDelegate proxy : proxiesList) {
+      for (int i = 0; i < proxiesList.size(); i++) {
+        final FieldDelegate proxy = proxiesList.get(i);
         if (projectionArray != null && projectionArray.length > 0) {
           boolean skip = true;
           for (String projectionValue : projectionArray) {
@@ -529,47 +394,9 @@ class Converter {
         if (columnAnnotation == null) continue;
 
         columnCount++;
-        Class<?> fldType = proxy.getType();
-        Object fldVal = proxy.get(row);
-
-        if (fldVal == null) continue;
-        if (columnAnnotation.autoIncrement() && (Long) fldVal <= 0) continue;
-
-        final String columnName = proxy.name();
-        if (fldType.equals(String.class)) {
-          resultValues.put(columnName, (String) fldVal);
-        } else if (fldType.equals(char[].class) || fldType.equals(Character[].class)) {
-          resultValues.put(columnName, new String((char[]) fldVal));
-        } else if (fldType.equals(Float.class) || fldType.equals(float.class)) {
-          resultValues.put(columnName, (float) fldVal);
-        } else if (fldType.equals(Double.class) || fldType.equals(double.class)) {
-          resultValues.put(columnName, (double) fldVal);
-        } else if (fldType.equals(Short.class) || fldType.equals(short.class)) {
-          resultValues.put(columnName, (short) fldVal);
-        } else if (fldType.equals(Integer.class) || fldType.equals(int.class)) {
-          resultValues.put(columnName, (int) fldVal);
-        } else if (fldType.equals(Long.class) || fldType.equals(long.class)) {
-          resultValues.put(columnName, (long) fldVal);
-        } else if (fldType.equals(char.class) || fldType.equals(Character.class)) {
-          resultValues.put(columnName, Character.toString((char) fldVal));
-        } else if (fldType.equals(Boolean.class) || fldType.equals(boolean.class)) {
-          resultValues.put(columnName, ((boolean) fldVal) ? 1 : 0);
-        } else if (fldType.equals(Bitmap.class)) {
-          resultValues.put(columnName, bitmapToBytes((Bitmap) fldVal));
-        } else if (fldType.equals(Byte.class) || fldType.equals(byte.class)) {
-          resultValues.put(columnName, (byte) fldVal);
-        } else if (fldType.equals(Byte[].class) || fldType.equals(byte[].class)) {
-          resultValues.put(columnName, (byte[]) fldVal);
-        } else if (fldVal instanceof Serializable) {
-          resultValues.put(columnName, serializeObject(fldVal));
-        } else {
-          throw new IllegalStateException(
-              String.format(
-                  "Class %s should be marked as "
-                      + "Serializable, or field/method %s should use the @ForeignKey "
-                      + "annotation instead of @Column.",
-                  fldType.getName(), proxy.originalName()));
-        }
+        if (columnAnnotation.autoIncrement() && proxy.getLong(row) <= 0) continue;
+        //noinspection ConstantConditions
+        adapters[i].store(proxy, row, resultValues);
       }
 
       if (columnCount == 0) {
@@ -583,17 +410,7 @@ class Converter {
     }
   }
 
-  private static byte[] bitmapToBytes(Bitmap bitmap) {
-    ByteArrayOutputStream stream = new ByteArrayOutputStream();
-    try {
-      bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
-      return stream.toByteArray();
-    } finally {
-      Utils.closeQuietely(stream);
-    }
-  }
-
-  private static byte[] serializeObject(Object obj) {
+  static byte[] serializeObject(Object obj) {
     ByteArrayOutputStream bos = new ByteArrayOutputStream();
     ObjectOutput out = null;
     try {
@@ -616,7 +433,7 @@ class Converter {
   }
 
   @SuppressWarnings("unchecked")
-  private static <T> T deserializeObject(byte[] data, Class<T> cls) {
+  static <T> T deserializeObject(byte[] data, Class<T> cls) {
     ByteArrayInputStream bis = new ByteArrayInputStream(data);
     ObjectInput in = null;
     try {
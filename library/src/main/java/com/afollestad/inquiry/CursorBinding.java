@@ -0,0 +1,150 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Maps the columns of an open Cursor to field delegates of a row class. Column names and types are
+ * resolved once, from the first row, so every following row is decoded with a plain indexed loop.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+final class CursorBinding<T> {
+
+  @NonNull private final RowMapper<T> mapper;
+  @NonNull private final FieldDelegate[] delegates;
+  @NonNull private final TypeAdapter<?>[] adapters;
+  @Nullable private final int[] generatedIndexes;
+  // LazyBlob columns which weren't selected, they're loaded later by their row ID
+  @NonNull private final int[] deferredSlots;
+  private final int idColumnIndex;
+  // Whether rows can be loaded into existing instances, see RowRecycler
+  final boolean reusesRows;
+
+  CursorBinding(@NonNull RowMapper<T> mapper, @NonNull Cursor cursor) {
+    this.mapper = mapper;
+    if (mapper.generated != null) {
+      final String[] columns = mapper.generated.columns();
+      this.generatedIndexes = new int[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        generatedIndexes[i] = cursor.getColumnIndex(columns[i]);
+      }
+      this.delegates = new FieldDelegate[0];
+      this.adapters = new TypeAdapter<?>[0];
+      this.deferredSlots = new int[0];
+      this.idColumnIndex = -1;
+      this.reusesRows = false;
+      return;
+    }
+    this.generatedIndexes = null;
+
+    final int columnCount = cursor.getColumnCount();
+    this.delegates = new FieldDelegate[columnCount];
+    this.adapters = new TypeAdapter<?>[columnCount];
+
+    for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+      String columnName = cursor.getColumnName(columnIndex);
+      if (columnName == null)
+        throw new IllegalStateException(
+            "Cursor returned null for the columnName at index " + columnIndex);
+      final int slot = mapper.getColumnSlot(columnName);
+      if (slot == -1) {
+        throw new IllegalStateException(
+            "Unable to map database column "
+                + columnName
+                + " to field/method in "
+                + mapper.rowClass.getName());
+      }
+      final FieldDelegate proxy = mapper.delegates.get(slot);
+      final TypeAdapter<?> adapter = mapper.adapters[slot];
+      //noinspection ConstantConditions
+      checkColumnType(columnName, cursor.getType(columnIndex), adapter, proxy.getType());
+      delegates[columnIndex] = proxy;
+      adapters[columnIndex] = adapter;
+    }
+
+    int deferredCount = 0;
+    final int[] deferred = new int[mapper.lazyBlobSlots.length];
+    for (int slot : mapper.lazyBlobSlots) {
+      if (cursor.getColumnIndex(mapper.delegates.get(slot).name()) == -1) {
+        deferred[deferredCount++] = slot;
+      }
+    }
+    this.deferredSlots =
+        deferredCount == deferred.length ? deferred : Arrays.copyOf(deferred, deferredCount);
+    this.idColumnIndex = deferredCount > 0 ? cursor.getColumnIndex("_id") : -1;
+    if (deferredCount > 0 && idColumnIndex == -1) {
+      throw new IllegalStateException(
+          "LazyBlob columns of "
+              + mapper.rowClass.getName()
+              + " can only be loaded if the _id column is selected.");
+    }
+    // Existing instances are only safe to reuse if every column is overwritten
+    this.reusesRows =
+        mapper.builderClass == null && columnCount + deferredCount == mapper.columnCount();
+  }
+
+  @NonNull
+  T read(@NonNull Query query, @NonNull Cursor cursor) {
+    return read(query, cursor, null);
+  }
+
+  /** @param reuse An instance to load the row into, used if {@link #reusesRows} is true. */
+  @NonNull
+  T read(@NonNull Query query, @NonNull Cursor cursor, @Nullable T reuse) {
+    if (generatedIndexes != null) {
+      //noinspection ConstantConditions
+      return mapper.generated.read(cursor, generatedIndexes);
+    }
+    final Object target = reuse != null && reusesRows ? reuse : mapper.newTarget();
+    for (int columnIndex = 0; columnIndex < adapters.length; columnIndex++) {
+      try {
+        adapters[columnIndex].load(cursor, columnIndex, delegates[columnIndex], target);
+      } catch (Exception e) {
+        Utils.wrapInReIfNecessary(e);
+      }
+    }
+    if (deferredSlots.length > 0) {
+      final long rowId = cursor.getLong(idColumnIndex);
+      for (int slot : deferredSlots) {
+        final BuiltInTypeAdapters.LazyBlobAdapter adapter =
+            (BuiltInTypeAdapters.LazyBlobAdapter) mapper.adapters[slot];
+        //noinspection ConstantConditions
+        Converter.deferLazyBlob(
+            query, mapper.delegates.get(slot), adapter.valueAdapter, rowId, target);
+      }
+    }
+    for (FieldDelegate proxy : mapper.foreignKeys) {
+      try {
+        Converter.loadForeignKey(query, proxy, target);
+      } catch (Throwable t) {
+        Utils.wrapInReIfNecessary(t);
+      }
+    }
+    return mapper.finish(target);
+  }
+
+  private static void checkColumnType(
+      String columnName, int cursorType, TypeAdapter<?> adapter, Class<?> fieldType) {
+    // Null cells fit any field, and BLOBs are decoded based on the field type
+    if (adapter.accepts(cursorType)) return;
+    final String typeName;
+    switch (cursorType) {
+      case Cursor.FIELD_TYPE_INTEGER:
+        typeName = "INTEGER (decimal)";
+        break;
+      case Cursor.FIELD_TYPE_FLOAT:
+        typeName = "REAL (float/double)";
+        break;
+      default:
+        typeName = "TEXT (string)";
+        break;
+    }
+    throw new IllegalStateException(
+        String.format(
+            "Column %s of type %s doesn't match field/method of type %s",
+            columnName, typeName, fieldType.getName()));
+  }
+}
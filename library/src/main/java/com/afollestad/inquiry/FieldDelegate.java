@@ -2,8 +2,10 @@ package com.afollestad.inquiry;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import com.afollestad.inquiry.annotations.BitmapFormat;
 import com.afollestad.inquiry.annotations.Column;
 import com.afollestad.inquiry.annotations.ForeignKey;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -11,14 +13,97 @@ import java.lang.reflect.Type;
 /** @author Aidan Follestad (afollestad) */
 final class FieldDelegate {
 
-  @Nullable private Field field;
-  @Nullable private Method getterMethod;
-  @Nullable private Method setterMethod;
-  private boolean readOnly;
+  @Nullable private final Field field;
+  @Nullable private final Method getterMethod;
+  @Nullable private final Method setterMethod;
+  private final boolean readOnly;
+
+  // Resolved once from the annotations, the hot paths only read these
+  @NonNull private final String name;
+  @Nullable private final Column column;
+  @Nullable private final ForeignKey foreignKey;
+  @Nullable private final BitmapFormat bitmapFormat;
+  private final boolean isId;
+  private final boolean ignore;
+  @NonNull private final Class<?> type;
+  @NonNull private final Type genericType;
+  private final boolean primitiveField;
+  private final boolean primitiveGetterField;
 
   // We're acting on a Builder class
   FieldDelegate(
       @NonNull Class<?> parentCls, @NonNull Class<?> builderCls, @NonNull Method setterMethod) {
+    this(null, findBuilderGetter(parentCls, builderCls, setterMethod), setterMethod, null, false);
+  }
+
+  // We're acting on a Row class
+  FieldDelegate(@Nullable Field field, @Nullable Method method, @NonNull Class<?> rowType) {
+    this(field, method, null, rowType, false);
+  }
+
+  // We don't want the ability to set values
+  FieldDelegate(@Nullable Field field, @Nullable Method method, boolean readOnly) {
+    this(field, method, null, null, readOnly);
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  private FieldDelegate(
+      @Nullable Field field,
+      @Nullable Method getterMethod,
+      @Nullable Method setterMethod,
+      @Nullable Class<?> rowType,
+      boolean readOnly) {
+    if (field == null && getterMethod == null)
+      throw new IllegalStateException("Both the given field and method are null.");
+
+    final AnnotatedElement annotated = getterMethod != null ? getterMethod : field;
+    this.column = annotated.getAnnotation(Column.class);
+    this.foreignKey = annotated.getAnnotation(ForeignKey.class);
+    this.bitmapFormat = annotated.getAnnotation(BitmapFormat.class);
+    String name;
+    if (getterMethod != null) {
+      name = getterMethod.getName();
+      if (name.startsWith("get")) name = name.substring(3);
+      this.type = getterMethod.getReturnType();
+      this.genericType = getterMethod.getGenericReturnType();
+    } else {
+      name = field.getName();
+      this.type = field.getType();
+      this.genericType = field.getGenericType();
+    }
+    if (column != null && column.name() != null && !column.name().trim().isEmpty()) {
+      name = column.name();
+    }
+    this.name = name;
+    this.isId = name.equals("_id");
+    this.ignore = !isId && column == null && foreignKey == null;
+    this.getterMethod = getterMethod;
+    this.readOnly = !ignore && readOnly;
+
+    if (!ignore && setterMethod == null) {
+      if (field != null) {
+        field.setAccessible(true);
+      } else {
+        getterMethod.setAccessible(true);
+        if (getterMethod.getReturnType() == Void.class) {
+          throw new IllegalStateException("Column getter methods cannot be return void.");
+        }
+        if (rowType != null) {
+          setterMethod = findRowSetter(getterMethod, rowType);
+          if (setterMethod == null) field = findRowField(getterMethod, rowType);
+        }
+      }
+    }
+    this.field = field;
+    this.setterMethod = setterMethod;
+    this.primitiveField = setterMethod == null && field != null && field.getType().isPrimitive();
+    this.primitiveGetterField =
+        getterMethod == null && field != null && field.getType().isPrimitive();
+  }
+
+  @NonNull
+  private static Method findBuilderGetter(
+      @NonNull Class<?> parentCls, @NonNull Class<?> builderCls, @NonNull Method setterMethod) {
     if (setterMethod.getReturnType() != builderCls) {
       throw new IllegalStateException(
           "Builder setter method "
@@ -30,7 +115,6 @@ final class FieldDelegate {
     if (setterMethod.getParameterTypes() == null || setterMethod.getParameterTypes().length != 1) {
       throw new IllegalStateException("Builder setter methods must only have 1 parameter.");
     }
-    this.setterMethod = setterMethod;
 
     String targetGetterName = setterMethod.getName();
     if (targetGetterName.startsWith("set")) targetGetterName = targetGetterName.substring(3);
@@ -38,8 +122,8 @@ final class FieldDelegate {
         setterMethod.getParameterTypes()[0].getName() + " " + targetGetterName + "()";
 
     try {
-      this.getterMethod = parentCls.getDeclaredMethod(targetGetterName);
-      if (this.getterMethod.getReturnType() != setterMethod.getParameterTypes()[0]) {
+      final Method getterMethod = parentCls.getDeclaredMethod(targetGetterName);
+      if (getterMethod.getReturnType() != setterMethod.getParameterTypes()[0]) {
         throw new IllegalStateException(
             "Getter "
                 + getterMethod.getName()
@@ -47,6 +131,7 @@ final class FieldDelegate {
                 + setterMethod.getParameterTypes()[0].getName()
                 + " to match the Builder method.");
       }
+      return getterMethod;
     } catch (NoSuchMethodException e) {
       throw new IllegalStateException(
           parentCls.getName()
@@ -57,80 +142,55 @@ final class FieldDelegate {
     }
   }
 
-  // We're acting on a Row class
-  FieldDelegate(@Nullable Field field, @Nullable Method method, @NonNull Class<?> rowType) {
-    if (field == null && method == null)
-      throw new IllegalStateException("Both the given field and method are null.");
-
-    this.field = field;
-    this.getterMethod = method;
-    if (ignore()) return;
+  private static String setterSignature(@NonNull Method getterMethod) {
+    String targetName = getterMethod.getName();
+    if (targetName.startsWith("get")) targetName = "set" + targetName.substring(3);
+    return "void " + targetName + "(" + getterMethod.getReturnType().getName() + ")";
+  }
 
-    if (this.field != null) {
-      this.field.setAccessible(true);
-    } else {
-      getterMethod.setAccessible(true);
-      if (getterMethod.getReturnType() == Void.class) {
-        throw new IllegalStateException("Column getter methods cannot be return void.");
-      }
-      String targetName = getterMethod.getName();
-      if (targetName.startsWith("get")) targetName = "set" + targetName.substring(3);
-      final String setterSignature =
-          "void " + targetName + "(" + getterMethod.getReturnType().getName() + ")";
-      try {
-        setterMethod = rowType.getDeclaredMethod(targetName, getterMethod.getReturnType());
-        if (setterMethod.getReturnType() == void.class) {
-          setterMethod.setAccessible(true);
-        } else {
-          throw new IllegalStateException(
-              "Column getter method "
-                  + getterMethod.getName()
-                  + " does not have an equivalent setter method with signature "
-                  + setterSignature);
-        }
-      } catch (NoSuchMethodException e) {
-        setterMethod = null;
-        String targetFieldName = getterMethod.getName();
-        if (targetFieldName.startsWith("get")) targetFieldName = targetFieldName.substring(3);
-        try {
-          this.field = rowType.getDeclaredField(targetFieldName);
-          if (this.field.getType().isAssignableFrom(getterMethod.getReturnType())) {
-            this.field.setAccessible(true);
-          } else {
-            throw new IllegalStateException(
-                "Column getter method "
-                    + getterMethod.getName()
-                    + " does not have an equivalent setter method with signature "
-                    + setterSignature);
-          }
-        } catch (NoSuchFieldException e1) {
-          throw new IllegalStateException(
-              "Column getter method "
-                  + getterMethod.getName()
-                  + " does not have an equivalent setter method with signature "
-                  + setterSignature);
-        }
+  /** Returns null if the row has no setter method, its field should be used instead. */
+  @Nullable
+  private static Method findRowSetter(@NonNull Method getterMethod, @NonNull Class<?> rowType) {
+    String targetName = getterMethod.getName();
+    if (targetName.startsWith("get")) targetName = "set" + targetName.substring(3);
+    try {
+      final Method setterMethod =
+          rowType.getDeclaredMethod(targetName, getterMethod.getReturnType());
+      if (setterMethod.getReturnType() == void.class) {
+        setterMethod.setAccessible(true);
+        return setterMethod;
       }
+      throw new IllegalStateException(
+          "Column getter method "
+              + getterMethod.getName()
+              + " does not have an equivalent setter method with signature "
+              + setterSignature(getterMethod));
+    } catch (NoSuchMethodException e) {
+      return null;
     }
   }
 
-  // We don't want the ability to set values
-  FieldDelegate(@Nullable Field field, @Nullable Method method, boolean readOnly) {
-    if (field == null && method == null)
-      throw new IllegalStateException("Both the given field and method are null.");
-
-    this.field = field;
-    this.getterMethod = method;
-    if (ignore()) return;
-    this.readOnly = readOnly;
-
-    if (this.field != null) {
-      this.field.setAccessible(true);
-    } else {
-      getterMethod.setAccessible(true);
-      if (getterMethod.getReturnType() == Void.class) {
-        throw new IllegalStateException("Column getter methods cannot be return void.");
+  @NonNull
+  private static Field findRowField(@NonNull Method getterMethod, @NonNull Class<?> rowType) {
+    String targetFieldName = getterMethod.getName();
+    if (targetFieldName.startsWith("get")) targetFieldName = targetFieldName.substring(3);
+    try {
+      final Field field = rowType.getDeclaredField(targetFieldName);
+      if (field.getType().isAssignableFrom(getterMethod.getReturnType())) {
+        field.setAccessible(true);
+        return field;
       }
+      throw new IllegalStateException(
+          "Column getter method "
+              + getterMethod.getName()
+              + " does not have an equivalent setter method with signature "
+              + setterSignature(getterMethod));
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(
+          "Column getter method "
+              + getterMethod.getName()
+              + " does not have an equivalent setter method with signature "
+              + setterSignature(getterMethod));
     }
   }
 
@@ -140,71 +200,46 @@ final class FieldDelegate {
     else return field.getName();
   }
 
-  @SuppressWarnings("ConstantConditions")
+  @NonNull
   public String name() {
-    Column colAnn;
-    String name;
-    if (getterMethod != null) {
-      colAnn = getterMethod.getAnnotation(Column.class);
-      name = getterMethod.getName();
-      if (name.startsWith("get")) name = name.substring(3);
-    } else {
-      colAnn = field.getAnnotation(Column.class);
-      name = field.getName();
-    }
-    if (colAnn != null && colAnn.name() != null && !colAnn.name().trim().isEmpty()) {
-      name = colAnn.name();
-    }
     return name;
   }
 
   public boolean isId() {
-    return name().equals("_id");
+    return isId;
   }
 
-  @SuppressWarnings("ConstantConditions")
   boolean ignore() {
-    return !isId() && getColumn() == null && getForeignKey() == null;
+    return ignore;
   }
 
   boolean isForeignKey() {
-    return getForeignKey() != null;
+    return foreignKey != null;
   }
 
-  @SuppressWarnings("ConstantConditions")
+  @Nullable
   ForeignKey getForeignKey() {
-    if (getterMethod != null) {
-      return getterMethod.getAnnotation(ForeignKey.class);
-    } else {
-      return field.getAnnotation(ForeignKey.class);
-    }
+    return foreignKey;
   }
 
-  @SuppressWarnings("ConstantConditions")
+  @Nullable
+  BitmapFormat getBitmapFormat() {
+    return bitmapFormat;
+  }
+
+  @Nullable
   public Column getColumn() {
-    if (getterMethod != null) {
-      return getterMethod.getAnnotation(Column.class);
-    } else {
-      return field.getAnnotation(Column.class);
-    }
+    return column;
   }
 
-  @SuppressWarnings("ConstantConditions")
+  @NonNull
   Class<?> getType() {
-    if (getterMethod != null) {
-      return getterMethod.getReturnType();
-    } else {
-      return field.getType();
-    }
+    return type;
   }
 
-  @SuppressWarnings("ConstantConditions")
+  @NonNull
   Type getGenericType() {
-    if (getterMethod != null) {
-      return getterMethod.getGenericReturnType();
-    } else {
-      return field.getGenericType();
-    }
+    return genericType;
   }
 
   @SuppressWarnings({"ConstantConditions", "unchecked"})
@@ -249,37 +284,123 @@ final class FieldDelegate {
     }
   }
 
+  private IllegalStateException setterFailure(Exception e) {
+    //noinspection ConstantConditions
+    return new IllegalStateException("Failed to access Column setter field " + field.getName(), e);
+  }
+
+  private IllegalStateException getterFailure(Exception e) {
+    //noinspection ConstantConditions
+    return new IllegalStateException("Failed to access Column getter field " + field.getName(), e);
+  }
+
+  // The primitive setters and getters below skip boxing when a primitive field is accessed
+  // directly. Methods and boxed fields fall back to set() and get().
+
+  @SuppressWarnings("ConstantConditions")
+  void setShort(Object row, short value) {
+    if (!primitiveField || readOnly) {
+      set(row, value);
+      return;
+    }
+    try {
+      field.setShort(row, value);
+    } catch (Exception e) {
+      throw setterFailure(e);
+    }
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  void setInt(Object row, int value) {
+    if (!primitiveField || readOnly) {
+      set(row, value);
+      return;
+    }
+    try {
+      field.setInt(row, value);
+    } catch (Exception e) {
+      throw setterFailure(e);
+    }
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  void setLong(Object row, long value) {
+    if (!primitiveField || readOnly) {
+      set(row, value);
+      return;
+    }
+    try {
+      field.setLong(row, value);
+    } catch (Exception e) {
+      throw setterFailure(e);
+    }
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  void setFloat(Object row, float value) {
+    if (!primitiveField || readOnly) {
+      set(row, value);
+      return;
+    }
+    try {
+      field.setFloat(row, value);
+    } catch (Exception e) {
+      throw setterFailure(e);
+    }
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  void setDouble(Object row, double value) {
+    if (!primitiveField || readOnly) {
+      set(row, value);
+      return;
+    }
+    try {
+      field.setDouble(row, value);
+    } catch (Exception e) {
+      throw setterFailure(e);
+    }
+  }
+
+  @SuppressWarnings("ConstantConditions")
+  void setBoolean(Object row, boolean value) {
+    if (!primitiveField || readOnly) {
+      set(row, value);
+      return;
+    }
+    try {
+      field.setBoolean(row, value);
+    } catch (Exception e) {
+      throw setterFailure(e);
+    }
+  }
+
+  /** Returns 0 if the value is null. */
+  @SuppressWarnings("ConstantConditions")
+  long getLong(Object row) {
+    if (primitiveGetterField) {
+      try {
+        return field.getLong(row);
+      } catch (Exception e) {
+        throw getterFailure(e);
+      }
+    }
+    Number value = get(row);
+    return value != null ? value.longValue() : 0;
+  }
+
+  /** @param sqlType The column type, which may come from a custom TypeAdapter. */
   @Nullable
-  String schema() {
+  String schema(@NonNull String sqlType) {
     if (isForeignKey()) return null;
     else if (ignore()) return null;
     Column columnAnnotation = getColumn();
     StringBuilder colName = new StringBuilder(name());
     colName.append(" ");
-    colName.append(getClassTypeString(getType()));
+    colName.append(sqlType);
     if (columnAnnotation.primaryKey()) colName.append(" PRIMARY KEY");
     if (columnAnnotation.autoIncrement()) colName.append(" AUTOINCREMENT");
     if (columnAnnotation.notNull()) colName.append(" NOT NULL");
     return colName.toString();
   }
-
-  private String getClassTypeString(Class<?> cls) {
-    if (cls.equals(String.class) || cls.equals(char[].class) || cls.equals(Character[].class)) {
-      return "TEXT";
-    } else if (cls.equals(Float.class)
-        || cls.equals(float.class)
-        || cls.equals(Double.class)
-        || cls.equals(double.class)) {
-      return "REAL";
-    } else if (cls.equals(Integer.class)
-        || cls.equals(int.class)
-        || cls.equals(Long.class)
-        || cls.equals(long.class)
-        || cls.equals(Boolean.class)
-        || cls.equals(boolean.class)) {
-      return "INTEGER";
-    } else {
-      return "BLOB";
-    }
-  }
 }
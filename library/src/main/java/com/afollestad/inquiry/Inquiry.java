@@ -15,7 +15,9 @@ import com.afollestad.inquiry.annotations.Column;
 import com.afollestad.inquiry.annotations.RowBuilder;
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /** @author Aidan Follestad (afollestad) */
 @SuppressWarnings("WeakerAccess")
@@ -36,19 +38,42 @@ public class Inquiry extends InquiryBase {
   Handler handler;
   @Nullable String databaseName;
   private int databaseVersion = 1;
+  private int statementCacheSize = StatementCache.DEFAULT_SIZE;
+  // Shared with copies, so plans are only explained and reported once
+  @Nullable private QueryPlanInspector queryPlanInspector;
+  // Also shared with copies, which open their own helper for the same database
+  @NonNull private Set<String> createdTables = new HashSet<>();
   private String instanceName;
   private SQLiteHelper databaseHelper;
+  @NonNull private TypeAdapterRegistry typeAdapters = TypeAdapterRegistry.DEFAULT;
 
   public SQLiteHelper _getDatabase() {
     if (databaseHelper == null) {
       if (databaseName == null || databaseName.trim().isEmpty())
         throw new IllegalStateException(
             "You must initialize your Inquiry instance with a non-null database name.");
-      databaseHelper = new SQLiteHelper(context, databaseName, databaseVersion);
+      databaseHelper =
+          new SQLiteHelper(
+              context,
+              databaseName,
+              databaseVersion,
+              statementCacheSize,
+              queryPlanInspector,
+              createdTables);
     }
     return databaseHelper;
   }
 
+  /** How many inserts, updates and deletes reused an already compiled statement. */
+  public int getStatementCacheHitCount() {
+    return databaseHelper != null ? databaseHelper.getStatementCache().hitCount() : 0;
+  }
+
+  /** How many inserts, updates and deletes had to compile their statement. */
+  public int getStatementCacheMissCount() {
+    return databaseHelper != null ? databaseHelper.getStatementCache().missCount() : 0;
+  }
+
   Inquiry(@NonNull Context context) {
     super(context);
     this.context = context;
@@ -56,6 +81,11 @@ public class Inquiry extends InquiryBase {
     this.databaseVersion = 1;
   }
 
+  @NonNull
+  TypeAdapterRegistry getTypeAdapters() {
+    return typeAdapters;
+  }
+
   @Nullable
   FieldDelegate getIdDelegate(Class<?> forClass) {
     FieldDelegate idProxy = getIdProxyCache().get(forClass.getName());
@@ -145,12 +175,64 @@ public class Inquiry extends InquiryBase {
       return this;
     }
 
+    /**
+     * Sets how many compiled INSERT, UPDATE and DELETE statements are kept for reuse, 32 by
+     * default. 0 compiles every statement from scratch.
+     */
+    @NonNull
+    public Builder statementCacheSize(@IntRange(from = 0, to = Integer.MAX_VALUE) int size) {
+      newInstance.statementCacheSize = size;
+      return this;
+    }
+
+    /**
+     * Runs EXPLAIN QUERY PLAN the first time each distinct SQL statement is executed, and reports
+     * full table scans and temporary sorts to the listener. This is meant for debug builds, since
+     * every new statement is planned twice.
+     */
+    @NonNull
+    public Builder queryPlanListener(@Nullable QueryPlanListener listener) {
+      newInstance.queryPlanInspector = listener != null ? new QueryPlanInspector(listener) : null;
+      return this;
+    }
+
     @NonNull
     public Builder handler(@Nullable Handler handler) {
       newInstance.handler = handler;
       return this;
     }
 
+    /**
+     * Registers an adapter for fields and getter methods of exactly the given type, replacing a
+     * built-in adapter if there's one.
+     */
+    @NonNull
+    public <T> Builder typeAdapter(@NonNull Class<T> type, @NonNull TypeAdapter<T> adapter) {
+      customTypeAdapters().register(type, adapter);
+      return this;
+    }
+
+    /** Sets the codec used for columns of Serializable types which have no TypeAdapter. */
+    @NonNull
+    public Builder blobCodec(@NonNull BlobCodec codec) {
+      customTypeAdapters().blobCodec = codec;
+      return this;
+    }
+
+    /** Sets the pool that decoded Bitmap columns reuse memory from. */
+    @NonNull
+    public Builder bitmapPool(@Nullable BitmapPool pool) {
+      customTypeAdapters().bitmapPool = pool;
+      return this;
+    }
+
+    @NonNull
+    private TypeAdapterRegistry customTypeAdapters() {
+      if (newInstance.typeAdapters == TypeAdapterRegistry.DEFAULT)
+        newInstance.typeAdapters = new TypeAdapterRegistry(TypeAdapterRegistry.DEFAULT);
+      return newInstance.typeAdapters;
+    }
+
     @NonNull
     public Inquiry build() {
       return build(true);
@@ -189,11 +271,16 @@ public class Inquiry extends InquiryBase {
   @NonNull
   public static Inquiry copy(
       @NonNull Inquiry instance, @NonNull String newInstanceName, boolean persist) {
-    return new Inquiry.Builder(instance.context, instance.databaseName)
-        .handler(instance.handler)
-        .databaseVersion(instance.databaseVersion)
-        .instanceName(newInstanceName)
-        .build(persist);
+    final Inquiry.Builder builder =
+        new Inquiry.Builder(instance.context, instance.databaseName)
+            .handler(instance.handler)
+            .databaseVersion(instance.databaseVersion)
+            .statementCacheSize(instance.statementCacheSize)
+            .instanceName(newInstanceName);
+    builder.newInstance.typeAdapters = instance.typeAdapters;
+    builder.newInstance.queryPlanInspector = instance.queryPlanInspector;
+    builder.newInstance.createdTables = instance.createdTables;
+    return builder.build(persist);
   }
 
   @CheckResult
@@ -214,6 +301,7 @@ public class Inquiry extends InquiryBase {
       databaseHelper.close();
       databaseHelper = null;
     }
+    queryPlanInspector = null;
     if (instanceName != null) {
       if (instances != null) instances.remove(instanceName);
       instanceName = null;
@@ -242,8 +330,17 @@ public class Inquiry extends InquiryBase {
   public void dropTable(@NonNull Class<?> rowCls) {
     SQLiteDatabase db =
         new SQLiteHelper(context, databaseName, databaseVersion).getWritableDatabase();
-    db.execSQL("DROP TABLE IF EXISTS " + Converter.getClassTableName(rowCls));
+    final String tableName = Converter.getClassTableName(rowCls);
+    db.execSQL("DROP TABLE IF EXISTS " + tableName);
     db.close();
+    forgetTable(tableName);
+  }
+
+  // A copy may have created the table through its own helper
+  private void forgetTable(@NonNull String tableName) {
+    synchronized (createdTables) {
+      createdTables.remove(tableName);
+    }
   }
 
   @Deprecated
@@ -252,6 +349,7 @@ public class Inquiry extends InquiryBase {
         new SQLiteHelper(context, databaseName, databaseVersion).getWritableDatabase();
     db.execSQL("DROP TABLE IF EXISTS " + tableName);
     db.close();
+    forgetTable(tableName);
   }
 
   @CheckResult
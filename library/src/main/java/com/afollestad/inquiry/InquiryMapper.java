@@ -0,0 +1,28 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
+/**
+ * Implemented by the {@code <Row>_InquiryMapper} classes that the inquiry-compiler annotation
+ * processor generates. When one exists for a row class, Inquiry uses it instead of reflection to
+ * read and write rows.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public interface InquiryMapper<RowType> {
+
+  /** The column names that {@link #read(Cursor, int[])} expects indexes for, in order. */
+  @NonNull
+  String[] columns();
+
+  /**
+   * @param cursor A cursor positioned at the row to read.
+   * @param columnIndexes The cursor index of each column in {@link #columns()}, or -1 if the cursor
+   *     doesn't contain the column.
+   */
+  @NonNull
+  RowType read(@NonNull Cursor cursor, @NonNull int[] columnIndexes);
+
+  void write(@NonNull RowType row, @NonNull RowValues values);
+}
@@ -0,0 +1,72 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list over the results of a query, which loads fixed-size pages of rows as they're
+ * accessed. Only the most recently used pages are kept in memory, so it can back a RecyclerView
+ * adapter over any number of rows. The size is counted once, with a COUNT query, when the list is
+ * created; create a new list to see changes made to the table since.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class PagedList<RowType> extends AbstractList<RowType> implements RandomAccess {
+
+  static final int DEFAULT_MAX_PAGES = 8;
+
+  @NonNull private final CompiledQuery<RowType> query;
+  private final int pageSize;
+  private final int size;
+  @NonNull private final LinkedHashMap<Integer, RowType[]> pages;
+
+  PagedList(@NonNull CompiledQuery<RowType> query, int pageSize, final int maxPages) {
+    if (pageSize <= 0) throw new IllegalArgumentException("The page size must be at least 1.");
+    if (maxPages <= 0) throw new IllegalArgumentException("At least 1 page must be cached.");
+    this.query = query;
+    this.pageSize = pageSize;
+    this.size = (int) Math.min(query.count(), Integer.MAX_VALUE);
+    this.pages =
+        new LinkedHashMap<Integer, RowType[]>(maxPages + 1, 1f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Integer, RowType[]> eldest) {
+            return size() > maxPages;
+          }
+        };
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public synchronized RowType get(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+    final int page = index / pageSize;
+    RowType[] rows = pages.get(page);
+    if (rows == null) {
+      rows = query.executePage(page * pageSize, pageSize);
+      if (rows == null) {
+        throw new IllegalStateException(
+            "Page " + page + " is empty, rows were deleted since the list was created.");
+      }
+      pages.put(page, rows);
+    }
+    final int offset = index - page * pageSize;
+    if (offset >= rows.length) {
+      throw new IllegalStateException(
+          "Row " + index + " is missing, rows were deleted since the list was created.");
+    }
+    return rows[offset];
+  }
+
+  /** The number of pages which are currently held in memory. */
+  public synchronized int loadedPageCount() {
+    return pages.size();
+  }
+}
@@ -0,0 +1,70 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Walks the results of a query page by page, ordered by a unique key column. Each page continues
+ * after the key of the last row of the previous one ({@code WHERE key > ?}) rather than skipping
+ * rows with OFFSET, so deep pages are as cheap as the first one when the key is indexed.
+ *
+ * <p>Create one with {@link Query#pager(String, int)}.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class Pager<RowType> {
+
+  @NonNull private final CompiledQuery<RowType> firstPage;
+  @NonNull private final CompiledQuery<RowType> nextPage;
+  @NonNull private final FieldDelegate keyProxy;
+  @Nullable private final Object[] whereArgs;
+  private final int pageSize;
+
+  @Nullable private Object lastKey;
+  private boolean hasNext = true;
+
+  Pager(
+      @NonNull CompiledQuery<RowType> firstPage,
+      @NonNull CompiledQuery<RowType> nextPage,
+      @NonNull FieldDelegate keyProxy,
+      @Nullable Object[] whereArgs,
+      int pageSize) {
+    this.firstPage = firstPage;
+    this.nextPage = nextPage;
+    this.keyProxy = keyProxy;
+    this.whereArgs = whereArgs;
+    this.pageSize = pageSize;
+  }
+
+  /** False once a page with less than the page size was returned. */
+  public boolean hasNext() {
+    return hasNext;
+  }
+
+  /** Returns the next page, or null if there are no more rows. */
+  @Nullable
+  public RowType[] next() {
+    if (!hasNext) return null;
+    final RowType[] page;
+    if (lastKey == null) {
+      page = firstPage.execute();
+    } else {
+      page = nextPage.execute(Utils.append(whereArgs, lastKey));
+    }
+    if (page == null || page.length < pageSize) hasNext = false;
+    if (page != null && page.length > 0) {
+      lastKey = keyProxy.get(page[page.length - 1]);
+      if (lastKey == null) {
+        throw new IllegalStateException(
+            "Pages are ordered by " + keyProxy.name() + ", which can't be null.");
+      }
+    }
+    return page;
+  }
+
+  /** Starts over from the first page. */
+  public void reset() {
+    lastKey = null;
+    hasNext = true;
+  }
+}
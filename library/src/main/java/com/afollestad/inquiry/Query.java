@@ -20,10 +20,11 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 /** @author Aidan Follestad (afollestad) */
 @SuppressWarnings("WeakerAccess")
@@ -39,6 +40,9 @@ public class Query<RowType, RunReturn> {
   protected static final int UPDATE = 3;
   protected static final int DELETE = 4;
 
+  // Positions of atPositions() at most this far apart are selected by one query
+  private static final int MAX_POSITION_GAP = 32;
+
   private final Inquiry inquiryInstance;
   private Uri contentUri;
   private String tableName;
@@ -47,10 +51,17 @@ public class Query<RowType, RunReturn> {
   @QueryType private final int queryType;
   private String[] projection;
   private StringBuilder where;
-  private List<String> whereArgs;
+  private List<Object> whereArgs;
   private StringBuilder sortOrder;
   private int limit;
+  // Only used by selectLongs(), selectDoubles() and selectStrings()
+  private boolean distinct;
+  // Only used by aggregate()
+  private String[] groupBy;
+  private StringBuilder having;
+  private List<Object> havingArgs;
   private ValuesWrapper<RowType> values;
+  @Nullable private RowRecycler<RowType> recycler;
 
   private HashMap<Object, FieldDelegate> foreignChildren;
 
@@ -58,6 +69,16 @@ public class Query<RowType, RunReturn> {
     return inquiryInstance;
   }
 
+  @Nullable
+  String getTableName() {
+    return tableName;
+  }
+
+  @Nullable
+  Uri getContentUri() {
+    return contentUri;
+  }
+
   protected Query(
       @NonNull Inquiry inquiry,
       @NonNull Uri contentUri,
@@ -84,11 +105,28 @@ public class Query<RowType, RunReturn> {
     if (inquiry.databaseName == null)
       throw new IllegalStateException(
           "Inquiry was not initialized with a database name, it can only use content providers in this configuration.");
-    inquiry._getDatabase().createTableIfNecessary(tableName, mClass);
+    inquiry._getDatabase().createTableIfNecessary(tableName, mClass, inquiry.getTypeAdapters());
     foreignChildren = new HashMap<>(0);
   }
 
-  private void appendWhere(String statement, String[] args, boolean or) {
+  /**
+   * A SELECT of the table or content URI without any other state, which rows are read through when
+   * the original query may change, see {@link CompiledQuery}.
+   */
+  Query(
+      @NonNull Inquiry inquiry,
+      @Nullable String tableName,
+      @Nullable Uri contentUri,
+      @Nullable Class<RowType> mClass) {
+    this.inquiryInstance = inquiry;
+    this.tableName = tableName;
+    this.contentUri = contentUri;
+    this.queryType = SELECT;
+    this.rowClass = mClass;
+    this.foreignChildren = new HashMap<>(0);
+  }
+
+  private void appendWhere(String statement, Object[] args, boolean or) {
     if (statement == null || statement.isEmpty()) return;
     int argCount = args != null ? args.length : 0;
     if (Utils.countOccurrences(statement, '?') != argCount)
@@ -105,66 +143,107 @@ public class Query<RowType, RunReturn> {
     return where != null ? where.toString() : null;
   }
 
+  /** The where args as Strings, for content providers. */
   private String[] getWhereArgs() {
-    return whereArgs != null && whereArgs.size() > 0
-        ? whereArgs.toArray(new String[whereArgs.size()])
-        : null;
+    return Utils.stringifyArray(getBindArgs());
+  }
+
+  /** The where args with their own types, which are bound natively to database queries. */
+  private Object[] getBindArgs() {
+    return whereArgs != null && whereArgs.size() > 0 ? whereArgs.toArray() : null;
   }
 
   private String getSort() {
     return sortOrder != null ? sortOrder.toString() : null;
   }
 
+  /**
+   * Limits this query to the row at a position of the current results, in the current sort order.
+   * Only the _id of that row is selected, with LIMIT 1 OFFSET position.
+   */
   @NonNull
   @CheckResult
   public Query<RowType, RunReturn> atPosition(
       @IntRange(from = 0, to = Integer.MAX_VALUE) int position) {
-    Cursor cursor;
-    if (contentUri != null) {
-      cursor =
-          inquiryInstance
-              .context
-              .getContentResolver()
-              .query(contentUri, null, getWhere(), getWhereArgs(), null);
-    } else {
-      if (inquiryInstance._getDatabase() == null)
-        throw new IllegalStateException("Database helper was null.");
-      else if (tableName == null) throw new IllegalStateException("Table name was null.");
-      cursor =
-          inquiryInstance._getDatabase().query(tableName, null, getWhere(), getWhereArgs(), null);
+    return atPositions(position);
+  }
+
+  /**
+   * Limits this query to the rows at several positions of the current results, in the current sort
+   * order. Each position's _id is selected with its own LIMIT and OFFSET, except that positions
+   * close to each other share a query.
+   */
+  @NonNull
+  @CheckResult
+  public Query<RowType, RunReturn> atPositions(@NonNull int... positions) {
+    final HashMap<Integer, Long> ids = new HashMap<>(positions.length);
+    for (int[] range : positionRanges(positions, limit)) {
+      final Cursor cursor = queryCursor(new String[] {"_id"}, range[1], range[0]);
+      if (cursor == null) return this;
+      readPositionIds(cursor, range[0], ids);
     }
-    if (cursor != null) {
-      if (position < 0 || position >= cursor.getCount()) {
-        cursor.close();
+    final Object[] args = positionIds(positions, ids);
+    if (args.length > 1) return whereIn("_id", false, args);
+    appendWhere("_id = ?", args, false);
+    return this;
+  }
+
+  /**
+   * Sorts positions into ranges which are each selected by one query, as pairs of the first
+   * position and the number of rows. Positions close to each other share a range.
+   */
+  @NonNull
+  static List<int[]> positionRanges(@NonNull int[] positions, int limit) {
+    if (positions.length == 0) throw new IllegalArgumentException("No positions were given.");
+    for (int position : positions) {
+      if (position < 0 || (limit > 0 && position >= limit)) {
         throw new IndexOutOfBoundsException(
-            String.format(
-                "Position %d is out of bounds for cursor of size %d.",
-                position, cursor.getCount()));
-      }
-      if (!cursor.moveToPosition(position)) {
-        cursor.close();
-        throw new IllegalStateException(
-            String.format(
-                "Unable to move to position %d in cursor of size %d.",
-                position, cursor.getCount()));
+            String.format("Position %d is out of bounds.", position));
       }
+    }
+    final int[] sorted = positions.clone();
+    Arrays.sort(sorted);
+    final List<int[]> ranges = new ArrayList<>();
+    for (int i = 0; i < sorted.length; ) {
+      final int first = sorted[i];
+      int last = first;
+      while (++i < sorted.length && sorted[i] - last <= MAX_POSITION_GAP) last = sorted[i];
+      ranges.add(new int[] {first, last - first + 1});
+    }
+    return ranges;
+  }
+
+  /** Reads the _id of each row of a range into ids, by its position. The Cursor is closed. */
+  static void readPositionIds(@NonNull Cursor cursor, int first, @NonNull Map<Integer, Long> ids) {
+    try {
       final int idIndex = cursor.getColumnIndex("_id");
-      if (idIndex < 0) {
-        cursor.close();
+      if (idIndex < 0)
         throw new IllegalStateException("Didn't find a column named _id in this Cursor.");
-      }
-      int idValue = cursor.getInt(idIndex);
-      appendWhere("_id = ?", new String[] {Integer.toString(idValue)}, false);
+      while (cursor.moveToNext()) ids.put(first + cursor.getPosition(), cursor.getLong(idIndex));
+    } finally {
       cursor.close();
     }
-    return this;
+  }
+
+  /** The _id of each position in the given order, positions past the end are out of bounds. */
+  @NonNull
+  static Object[] positionIds(@NonNull int[] positions, @NonNull Map<Integer, Long> ids) {
+    final Object[] args = new Object[positions.length];
+    for (int i = 0; i < positions.length; i++) {
+      args[i] = ids.get(positions[i]);
+      if (args[i] == null) {
+        throw new IndexOutOfBoundsException(
+            String.format("Position %d is out of bounds.", positions[i]));
+      }
+    }
+    return args;
   }
 
   @NonNull
   @CheckResult
   private Query<RowType, RunReturn> where(
       @NonNull String selection, boolean or, @Nullable Object... selectionArgs) {
-    appendWhere(selection, Utils.stringifyArray(selectionArgs), or);
+    appendWhere(selection, Utils.bindableArray(selectionArgs), or);
     return this;
   }
 
@@ -188,13 +267,10 @@ public class Query<RowType, RunReturn> {
       @NonNull String columnName, boolean or, @Nullable Object... selectionArgs) {
     if (selectionArgs == null || selectionArgs.length == 0)
       throw new IllegalArgumentException("You must specify non-null, non-empty selection args.");
-    final String statement =
-        String.format(
-            Locale.getDefault(),
-            "%s IN %s",
-            columnName,
-            Utils.createArgsString(selectionArgs.length));
-    appendWhere(statement, Utils.stringifyArray(selectionArgs), or);
+    final Object[] args = Utils.bindableArray(selectionArgs);
+    final List<Object> unbound = new ArrayList<>(Math.min(args.length, Utils.MAX_IN_PLACEHOLDERS));
+    final String statement = columnName + " IN " + Utils.createInListString(args, unbound);
+    appendWhere(statement, unbound.toArray(), or);
     return this;
   }
 
@@ -204,13 +280,10 @@ public class Query<RowType, RunReturn> {
       @NonNull String columnName, boolean or, @Nullable Object... selectionArgs) {
     if (selectionArgs == null || selectionArgs.length == 0)
       throw new IllegalArgumentException("You must specify non-null, non-empty selection args.");
-    final String statement =
-        String.format(
-            Locale.getDefault(),
-            "%s NOT IN %s",
-            columnName,
-            Utils.createArgsString(selectionArgs.length));
-    appendWhere(statement, Utils.stringifyArray(selectionArgs), or);
+    final Object[] args = Utils.bindableArray(selectionArgs);
+    final List<Object> unbound = new ArrayList<>(Math.min(args.length, Utils.MAX_IN_PLACEHOLDERS));
+    final String statement = columnName + " NOT IN " + Utils.createInListString(args, unbound);
+    appendWhere(statement, unbound.toArray(), or);
     return this;
   }
 
@@ -291,6 +364,159 @@ public class Query<RowType, RunReturn> {
     return this;
   }
 
+  /**
+   * Removes duplicate values from {@link #selectLongs(String)} and the other single-column selects.
+   * Content providers don't support it, since their projection can only name columns.
+   */
+  @NonNull
+  @CheckResult
+  public Query<RowType, RunReturn> distinct() {
+    if (contentUri != null)
+      throw new IllegalStateException("distinct() can't be used with content providers.");
+    this.distinct = true;
+    return this;
+  }
+
+  /** Groups the rows of {@link #aggregate(String...)}, which returns one row per group. */
+  @NonNull
+  @CheckResult
+  public Query<RowType, RunReturn> groupBy(@NonNull String... columnNames) {
+    if (columnNames.length == 0) throw new IllegalArgumentException("No columns were given.");
+    this.groupBy = columnNames;
+    return this;
+  }
+
+  /** Filters the groups of {@link #aggregate(String...)}, e.g. "COUNT(*) > ?". */
+  @NonNull
+  @CheckResult
+  public Query<RowType, RunReturn> having(
+      @NonNull String condition, @Nullable Object... conditionArgs) {
+    if (groupBy == null) throw new IllegalStateException("having() must follow groupBy().");
+    final Object[] args = Utils.bindableArray(conditionArgs);
+    if (Utils.countOccurrences(condition, '?') != (args != null ? args.length : 0))
+      throw new IllegalArgumentException(
+          "There must be the same amount of args as there is '?' characters in your having statement.");
+    if (having == null) having = new StringBuilder();
+    if (havingArgs == null) havingArgs = new ArrayList<>();
+    if (having.length() > 0) having.append(" AND ");
+    having.append(condition);
+    if (args != null) Collections.addAll(havingArgs, args);
+    return this;
+  }
+
+  /** Loads results into rows taken from the recycler when possible, see {@link RowRecycler}. */
+  @NonNull
+  @CheckResult
+  public Query<RowType, RunReturn> recycler(@Nullable RowRecycler<RowType> recycler) {
+    this.recycler = recycler;
+    return this;
+  }
+
+  @NonNull
+  private String keysetWhere(@NonNull String column) {
+    if (sortOrder != null && sortOrder.length() > 0) {
+      throw new IllegalStateException(
+          "Pages are sorted by their key column, so they can't be combined with sort().");
+    }
+    final String where = getWhere();
+    return where == null || where.isEmpty()
+        ? column + " > ?"
+        : "(" + where + ") AND " + column + " > ?";
+  }
+
+  /**
+   * Selects a page of rows ordered by a unique key column, starting after the key of the last row
+   * of the previous page. Unlike an offset, this is as fast for deep pages as it is for the first.
+   *
+   * @param lastValue The key of the last row of the previous page, or null for the first page.
+   */
+  @NonNull
+  @CheckResult
+  public Query<RowType, RunReturn> pageAfter(
+      @NonNull String column,
+      @Nullable Object lastValue,
+      @IntRange(from = 1, to = Integer.MAX_VALUE) int pageSize) {
+    final String statement = keysetWhere(column);
+    if (lastValue != null) {
+      final Object[] args = Utils.append(getBindArgs(), lastValue);
+      where = null;
+      whereArgs = null;
+      appendWhere(statement, Utils.bindableArray(args), false);
+    }
+    return sortByAsc(column).limit(pageSize);
+  }
+
+  /**
+   * Returns a read-only list which loads pages of rows as they're accessed, see {@link PagedList}.
+   */
+  @NonNull
+  @CheckResult
+  public PagedList<RowType> paged(@IntRange(from = 1, to = Integer.MAX_VALUE) int pageSize) {
+    return paged(pageSize, PagedList.DEFAULT_MAX_PAGES);
+  }
+
+  /** @param maxPages The most pages that are kept in memory at once. */
+  @NonNull
+  @CheckResult
+  public PagedList<RowType> paged(
+      @IntRange(from = 1, to = Integer.MAX_VALUE) int pageSize,
+      @IntRange(from = 1, to = Integer.MAX_VALUE) int maxPages) {
+    return new PagedList<>(compile(), pageSize, maxPages);
+  }
+
+  /** Pages through the results by their _id. */
+  @NonNull
+  @CheckResult
+  public Pager<RowType> pager(@IntRange(from = 1, to = Integer.MAX_VALUE) int pageSize) {
+    return pager("_id", pageSize);
+  }
+
+  /**
+   * Pages through the results ordered by a unique key column, see {@link Pager}. Changes made to
+   * this query afterwards don't affect the pager.
+   */
+  @NonNull
+  @CheckResult
+  public Pager<RowType> pager(
+      @NonNull String column, @IntRange(from = 1, to = Integer.MAX_VALUE) int pageSize) {
+    if (queryType != SELECT) throw new IllegalStateException("Only SELECT queries can be paged.");
+    else if (rowClass == null) throw new IllegalStateException("This query has no row class.");
+    final String[] projection =
+        this.projection != null ? this.projection.clone() : Converter.generateProjection(rowClass);
+    if (!Arrays.asList(projection).contains(column))
+      throw new IllegalStateException("The key column " + column + " must be selected.");
+    final FieldDelegate keyProxy =
+        Converter.getProxyByName(Converter.classFieldDelegatesReadOnly(rowClass), column);
+    if (keyProxy == null)
+      throw new IllegalStateException(column + " is not a column of " + rowClass.getName());
+
+    final RowMapper<RowType> mapper = RowMapper.get(inquiryInstance, rowClass);
+    final String sort = column + " ASC";
+    final CompiledQuery<RowType> firstPage =
+        new CompiledQuery<>(
+            inquiryInstance,
+            mapper,
+            tableName,
+            contentUri,
+            projection,
+            getWhere(),
+            getBindArgs(),
+            sort,
+            pageSize);
+    final CompiledQuery<RowType> nextPage =
+        new CompiledQuery<>(
+            inquiryInstance,
+            mapper,
+            tableName,
+            contentUri,
+            projection,
+            keysetWhere(column),
+            null,
+            sort,
+            pageSize);
+    return new Pager<>(firstPage, nextPage, keyProxy, getBindArgs(), pageSize);
+  }
+
   @NonNull
   @CheckResult
   protected final Query<RowType, RunReturn> valuesArray(@NonNull Object[] values) {
@@ -324,43 +550,61 @@ public class Query<RowType, RunReturn> {
     return this;
   }
 
-  @SuppressWarnings("unchecked")
   @Nullable
-  @CheckResult
-  private RowType[] getInternal(int limit) {
+  private Cursor queryCursor(int limit) {
     if (rowClass == null) return null;
     else if (inquiryInstance.context == null) return null;
     if (projection == null) projection = Converter.generateProjection(rowClass);
+    return queryCursor(projection, limit, -1);
+  }
 
-    String sort = getSort();
-    if (limit > -1) {
-      sort += String.format(Locale.getDefault(), " LIMIT %d", limit);
-    }
-    Cursor cursor;
+  /** An offset of -1 leaves it out, so the limit is written into the SQL instead of bound. */
+  private Cursor queryCursor(String[] projection, int limit, int offset) {
     if (contentUri != null) {
-      cursor =
-          inquiryInstance
-              .context
-              .getContentResolver()
-              .query(contentUri, projection, getWhere(), getWhereArgs(), sort);
+      return inquiryInstance
+          .context
+          .getContentResolver()
+          .query(
+              contentUri,
+              projection,
+              getWhere(),
+              getWhereArgs(),
+              Utils.providerSortOrder(getSort(), limit, Math.max(offset, 0)));
     } else {
       if (inquiryInstance._getDatabase() == null)
         throw new IllegalStateException("Database helper was null.");
       else if (tableName == null) throw new IllegalStateException("Table name was null.");
-      cursor =
-          inquiryInstance
-              ._getDatabase()
-              .query(tableName, projection, getWhere(), getWhereArgs(), sort);
+      if (offset >= 0) {
+        // The limit and offset are bound, so every position shares the same compiled SQL
+        final String sql =
+            SQLiteHelper.selectSql(tableName, projection, getWhere(), getSort(), 0)
+                + " LIMIT ? OFFSET ?";
+        final Object[] args = Utils.append(Utils.append(getBindArgs(), limit), offset);
+        return inquiryInstance._getDatabase().rawQuery(sql, args, tableName, getWhere());
+      }
+      return inquiryInstance
+          ._getDatabase()
+          .query(tableName, projection, getWhere(), getBindArgs(), getSort(), limit);
     }
+  }
 
+  @SuppressWarnings("unchecked")
+  @Nullable
+  @CheckResult
+  private RowType[] getInternal(int limit) {
+    final Cursor cursor = queryCursor(limit);
     if (cursor != null) {
       RowType[] results = null;
       try {
         if (cursor.getCount() > 0) {
           results = (RowType[]) Array.newInstance(rowClass, cursor.getCount());
+          CursorBinding<RowType> binding = null;
           int index = 0;
           while (cursor.moveToNext()) {
-            results[index] = Converter.cursorToObject(this, cursor, rowClass);
+            if (binding == null) {
+              binding = new CursorBinding<>(RowMapper.get(inquiryInstance, rowClass), cursor);
+            }
+            results[index] = readRow(binding, cursor);
             index++;
           }
         }
@@ -372,6 +616,188 @@ public class Query<RowType, RunReturn> {
     return null;
   }
 
+  @NonNull
+  private RowType readRow(@NonNull CursorBinding<RowType> binding, @NonNull Cursor cursor) {
+    final RowType reuse = recycler != null && binding.reusesRows ? recycler.obtain() : null;
+    return binding.read(this, cursor, reuse);
+  }
+
+  /**
+   * Clears the list and adds the results to it, rather than allocating an array. If a {@link
+   * RowRecycler} is attached, the rows which were in the list are recycled first, so they're reused
+   * for the new results.
+   */
+  @NonNull
+  public List<RowType> all(@NonNull List<RowType> into) {
+    if (recycler != null) recycler.recycleAll(into);
+    into.clear();
+    final Cursor cursor = queryCursor(limit > 0 ? limit : -1);
+    if (cursor == null) return into;
+    try {
+      CursorBinding<RowType> binding = null;
+      while (cursor.moveToNext()) {
+        if (binding == null) {
+          //noinspection ConstantConditions
+          binding = new CursorBinding<>(RowMapper.get(inquiryInstance, rowClass), cursor);
+        }
+        into.add(readRow(binding, cursor));
+      }
+    } finally {
+      cursor.close();
+    }
+    return into;
+  }
+
+  /**
+   * Maps rows one at a time as they're iterated, rather than loading every row into an array first.
+   * The returned iterator must be closed if you stop iterating before reaching the end.
+   */
+  @NonNull
+  @CheckResult
+  public RowIterator<RowType> iterate() {
+    if (rowClass == null) throw new IllegalStateException("This query has no row class.");
+    final RowMapper<RowType> mapper = RowMapper.get(inquiryInstance, rowClass);
+    final RowIterator.PageSource pages = keysetPages(mapper);
+    if (pages != null) return new RowIterator<>(this, mapper, pages, limit);
+    return new RowIterator<>(this, mapper, queryCursor(limit > 0 ? limit : -1));
+  }
+
+  /**
+   * Reads pages of an unsorted table query after the last _id of the previous page. Every page uses
+   * the same SQL, and each starts with an index seek rather than skipping an offset.
+   */
+  @Nullable
+  private RowIterator.PageSource keysetPages(@NonNull RowMapper<RowType> mapper) {
+    if (rowClass == null || inquiryInstance.context == null || contentUri != null) return null;
+    else if (sortOrder != null && sortOrder.length() > 0) return null;
+    else if (!RowIterator.canPage(mapper)) return null;
+    if (projection == null) projection = Converter.generateProjection(rowClass);
+    if (!Arrays.asList(projection).contains("_id")) return null;
+    if (inquiryInstance._getDatabase() == null)
+      throw new IllegalStateException("Database helper was null.");
+    else if (tableName == null) throw new IllegalStateException("Table name was null.");
+
+    final Inquiry inquiry = inquiryInstance;
+    final String table = tableName;
+    final String where = getWhere();
+    final Object[] args = getBindArgs();
+    final String sql =
+        SQLiteHelper.selectSql(table, projection, keysetWhere("_id"), "_id ASC", 0) + " LIMIT ?";
+    return new RowIterator.PageSource() {
+      @Override
+      public Cursor open(long afterId, int count) {
+        final Object[] pageArgs = Utils.append(Utils.append(args, afterId), count);
+        return inquiry._getDatabase().rawQuery(sql, pageArgs, table, where);
+      }
+    };
+  }
+
+  /** Passes each row to the consumer as it's read from the Cursor. */
+  public void forEach(@NonNull RowConsumer<RowType> consumer) {
+    final RowIterator<RowType> iterator = iterate();
+    try {
+      while (iterator.hasNext()) consumer.accept(iterator.next());
+    } finally {
+      iterator.close();
+    }
+  }
+
+  @Nullable
+  private Cursor columnCursor(@NonNull String columnName) {
+    if (inquiryInstance.context == null) return null;
+    final String[] projection = new String[] {columnName};
+    if (!distinct) return queryCursor(projection, limit > 0 ? limit : -1, -1);
+    if (inquiryInstance._getDatabase() == null)
+      throw new IllegalStateException("Database helper was null.");
+    else if (tableName == null) throw new IllegalStateException("Table name was null.");
+    final String sql =
+        SQLiteHelper.selectSql(
+            tableName, true, projection, getWhere(), null, null, getSort(), limit);
+    return inquiryInstance._getDatabase().rawQuery(sql, getBindArgs(), tableName, getWhere());
+  }
+
+  /** Selects a single column into a long[], without creating any rows. Null values are 0. */
+  @NonNull
+  @CheckResult
+  public long[] selectLongs(@NonNull String columnName) {
+    return ColumnValues.readLongs(columnCursor(columnName));
+  }
+
+  /** Selects a single column into a double[], without creating any rows. Null values are 0. */
+  @NonNull
+  @CheckResult
+  public double[] selectDoubles(@NonNull String columnName) {
+    return ColumnValues.readDoubles(columnCursor(columnName));
+  }
+
+  /** Selects a single column into a String[], without creating any rows. */
+  @NonNull
+  @CheckResult
+  public String[] selectStrings(@NonNull String columnName) {
+    return ColumnValues.readStrings(columnCursor(columnName));
+  }
+
+  /**
+   * Reads the results into one array per column rather than one object per row, which is much
+   * smaller for large numeric tables.
+   */
+  @NonNull
+  @CheckResult
+  public ColumnarResult<RowType> columns() {
+    if (rowClass == null) throw new IllegalStateException("This query has no row class.");
+    final RowMapper<RowType> mapper = RowMapper.get(inquiryInstance, rowClass);
+    final Cursor cursor = queryCursor(limit > 0 ? limit : -1);
+    if (cursor == null) return new ColumnarResult<>(this, mapper, new String[0]);
+    try {
+      final ColumnarResult<RowType> result =
+          new ColumnarResult<>(this, mapper, cursor.getColumnNames());
+      result.readAll(cursor);
+      return result;
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Resolves this SELECT query into a {@link CompiledQuery}, which can be executed many times with
+   * new where arguments. Changes made to this query afterwards don't affect the compiled one.
+   */
+  @NonNull
+  @CheckResult
+  public CompiledQuery<RowType> compile() {
+    if (queryType != SELECT)
+      throw new IllegalStateException("Only SELECT queries can be compiled.");
+    else if (rowClass == null) throw new IllegalStateException("This query has no row class.");
+    final String[] projection =
+        this.projection != null ? this.projection.clone() : Converter.generateProjection(rowClass);
+    return new CompiledQuery<>(
+        inquiryInstance,
+        RowMapper.get(inquiryInstance, rowClass),
+        tableName,
+        contentUri,
+        projection,
+        getWhere(),
+        getBindArgs(),
+        getSort(),
+        limit);
+  }
+
+  /**
+   * Passes a view of each row to the visitor without creating row objects, for reads which only
+   * need a few column values, such as sums or exports.
+   */
+  public void scan(@NonNull RowVisitor visitor) {
+    if (rowClass == null) throw new IllegalStateException("This query has no row class.");
+    final Cursor cursor = queryCursor(limit > 0 ? limit : -1);
+    if (cursor == null) return;
+    try {
+      final RowView view = new RowView(RowMapper.get(inquiryInstance, rowClass), cursor);
+      while (cursor.moveToNext()) visitor.visit(view);
+    } finally {
+      cursor.close();
+    }
+  }
+
   @Nullable
   @CheckResult
   public RowType first() {
@@ -381,34 +807,217 @@ public class Query<RowType, RunReturn> {
     return results[0];
   }
 
+  /**
+   * Runs a query which returns a single value in its first column, such as a COUNT, without mapping
+   * any rows.
+   */
+  @Nullable
+  static Cursor queryValue(
+      @NonNull Inquiry inquiry,
+      @Nullable String tableName,
+      @Nullable Uri contentUri,
+      @NonNull String expression,
+      @Nullable String where,
+      @Nullable Object[] whereArgs,
+      int limit) {
+    final String[] projection = new String[] {expression};
+    if (contentUri != null) {
+      return inquiry
+          .context
+          .getContentResolver()
+          .query(
+              contentUri,
+              projection,
+              where,
+              Utils.stringifyArray(whereArgs),
+              Utils.providerSortOrder(null, limit, 0));
+    } else if (tableName == null) {
+      throw new IllegalStateException("Table name was null.");
+    }
+    return inquiry
+        ._getDatabase()
+        .rawQuery(
+            SQLiteHelper.selectSql(tableName, projection, where, null, limit),
+            whereArgs,
+            tableName,
+            where);
+  }
+
+  static long count(
+      @NonNull Inquiry inquiry,
+      @Nullable String tableName,
+      @Nullable Uri contentUri,
+      @Nullable String where,
+      @Nullable Object[] whereArgs,
+      int limit) {
+    final Cursor cursor =
+        queryValue(inquiry, tableName, contentUri, "COUNT(*)", where, whereArgs, 0);
+    if (cursor == null) return 0;
+    try {
+      final long count = cursor.moveToFirst() ? cursor.getLong(0) : 0;
+      return limit > 0 ? Math.min(count, limit) : count;
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /** Counts the rows this query matches with SELECT COUNT(*), without loading any of them. */
+  @CheckResult
+  public long count() {
+    if (inquiryInstance.context == null) return 0;
+    return count(inquiryInstance, tableName, contentUri, getWhere(), getBindArgs(), limit);
+  }
+
+  /** Checks if this query matches any row with SELECT 1 ... LIMIT 1, without loading it. */
+  @CheckResult
+  public boolean exists() {
+    if (inquiryInstance.context == null) return false;
+    final Cursor cursor =
+        queryValue(inquiryInstance, tableName, contentUri, "1", getWhere(), getBindArgs(), 1);
+    if (cursor == null) return false;
+    try {
+      return cursor.moveToFirst();
+    } finally {
+      cursor.close();
+    }
+  }
+
+  @Nullable
+  private Double aggregateValue(@NonNull String function, @NonNull String columnName) {
+    if (inquiryInstance.context == null) return null;
+    final String expression = function + "(" + columnName + ")";
+    final Cursor cursor =
+        queryValue(
+            inquiryInstance, tableName, contentUri, expression, getWhere(), getBindArgs(), 0);
+    if (cursor == null) return null;
+    try {
+      if (!cursor.moveToFirst() || cursor.isNull(0)) return null;
+      return cursor.getDouble(0);
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /** Runs SELECT SUM(column) over the matched rows, which is 0 if there are none. */
+  @CheckResult
+  public double sum(@NonNull String columnName) {
+    final Double sum = aggregateValue("SUM", columnName);
+    return sum != null ? sum : 0;
+  }
+
+  /** Runs SELECT AVG(column) over the matched rows, which is null if there are none. */
+  @Nullable
+  @CheckResult
+  public Double avg(@NonNull String columnName) {
+    return aggregateValue("AVG", columnName);
+  }
+
+  /** Runs SELECT MIN(column) over the matched rows, which is null if there are none. */
+  @Nullable
+  @CheckResult
+  public Double min(@NonNull String columnName) {
+    return aggregateValue("MIN", columnName);
+  }
+
+  /** Runs SELECT MAX(column) over the matched rows, which is null if there are none. */
+  @Nullable
+  @CheckResult
+  public Double max(@NonNull String columnName) {
+    return aggregateValue("MAX", columnName);
+  }
+
+  /**
+   * Runs the aggregate expressions, e.g. "COUNT(*)" or "SUM(duration) AS total", in one SELECT.
+   * With {@link #groupBy(String...)}, the result has a row per group which starts with the grouped
+   * columns; otherwise it has a single row. The sort and limit apply to the result rows.
+   */
+  @NonNull
+  @CheckResult
+  public AggregateResult aggregate(@NonNull String... expressions) {
+    if (expressions.length == 0) throw new IllegalArgumentException("No expressions were given.");
+    final String[] groupColumns = groupBy != null ? groupBy : new String[0];
+    final String[] projection = new String[groupColumns.length + expressions.length];
+    System.arraycopy(groupColumns, 0, projection, 0, groupColumns.length);
+    System.arraycopy(expressions, 0, projection, groupColumns.length, expressions.length);
+    if (inquiryInstance.context == null) return new AggregateResult(projection, null);
+
+    final Cursor cursor;
+    if (contentUri != null) {
+      // ContentResolver.query() has no GROUP BY or HAVING before API 26
+      if (groupBy != null)
+        throw new IllegalStateException("groupBy() can't be used with content providers.");
+      cursor =
+          inquiryInstance
+              .context
+              .getContentResolver()
+              .query(
+                  contentUri,
+                  projection,
+                  getWhere(),
+                  getWhereArgs(),
+                  Utils.providerSortOrder(getSort(), limit, 0));
+    } else {
+      if (inquiryInstance._getDatabase() == null)
+        throw new IllegalStateException("Database helper was null.");
+      else if (tableName == null) throw new IllegalStateException("Table name was null.");
+      final List<Object> args = new ArrayList<>();
+      if (whereArgs != null) args.addAll(whereArgs);
+      if (havingArgs != null) args.addAll(havingArgs);
+      final String sql =
+          SQLiteHelper.selectSql(
+              tableName,
+              projection,
+              getWhere(),
+              groupBy != null ? Utils.join(false, null, (Object[]) groupBy) : null,
+              having != null ? having.toString() : null,
+              getSort(),
+              limit);
+      cursor =
+          inquiryInstance
+              ._getDatabase()
+              .rawQuery(sql, args.isEmpty() ? null : args.toArray(), tableName, getWhere());
+    }
+    return new AggregateResult(projection, cursor);
+  }
+
   @CheckResult
   public boolean any() {
-    return first() != null;
+    return exists();
   }
 
   @CheckResult
   public boolean any(AnyPredicate<RowType> predicate) {
-    RowType[] rows = all();
-    if (rows == null || rows.length == 0) return false;
-    for (RowType r : rows) {
-      if (predicate.match(r)) return true;
-    }
-    return false;
+    return firstMatching(predicate) != null;
   }
 
   @CheckResult
   public boolean none() {
-    return first() == null;
+    return !exists();
   }
 
   @CheckResult
   public boolean none(AnyPredicate<RowType> predicate) {
-    RowType[] rows = all();
-    if (rows == null || rows.length == 0) return true;
-    for (RowType r : rows) {
-      if (predicate.match(r)) return false;
+    return firstMatching(predicate) == null;
+  }
+
+  /**
+   * Returns the first row which matches the predicate, or null if none do. Rows are read in pages
+   * like {@link #iterate()}, and reading stops at the first match.
+   */
+  @Nullable
+  @CheckResult
+  public RowType firstMatching(@NonNull AnyPredicate<RowType> predicate) {
+    if (rowClass == null) return null;
+    final RowIterator<RowType> rows = iterate();
+    try {
+      while (rows.hasNext()) {
+        final RowType row = rows.next();
+        if (predicate.match(row)) return row;
+      }
+      return null;
+    } finally {
+      rows.close();
     }
-    return true;
   }
 
   @Nullable
@@ -465,9 +1074,8 @@ public class Query<RowType, RunReturn> {
     }
 
     final ContentResolver cr = inquiryInstance.context.getContentResolver();
-    final Class<?> builderCls = inquiryInstance.getBuilderClass(rowClass);
-    final List<FieldDelegate> clsProxies =
-        Converter.classFieldDelegates(rowClass, false, builderCls);
+    final RowMapper<RowType> mapper = RowMapper.get(inquiryInstance, rowClass);
+    final Class<?> builderCls = mapper.builderClass;
     if (tableName == null) throw new IllegalStateException("The table name cannot be null.");
     FieldDelegate rowIdProxy = inquiryInstance.getIdDelegate(rowClass);
 
@@ -495,27 +1103,26 @@ public class Query<RowType, RunReturn> {
             for (int i = 0; i < values.size(); i++) {
               final RowType row = values.get(i);
               if (row == null) continue;
-              RowValues rowValues = Converter.classToValues(row, null, clsProxies, foreignChildren);
-              insertedIds[i] =
-                  inquiryInstance._getDatabase().insert(tableName, rowValues.toContentValues());
+              RowValues rowValues = mapper.toValues(row, null, foreignChildren);
+              insertedIds[i] = inquiryInstance._getDatabase().insert(tableName, rowValues);
               if (withIdMethod != null) {
                 values.set(i, (RowType) withIdMethod.invoke(row, insertedIds[i]));
               } else if (rowIdProxy != null) {
-                rowIdProxy.set(row, insertedIds[i]);
+                rowIdProxy.setLong(row, insertedIds[i]);
               }
             }
           } else if (contentUri != null) {
             for (int i = 0; i < values.size(); i++) {
               final RowType row = values.get(i);
               if (row == null) continue;
-              RowValues rowValues = Converter.classToValues(row, null, clsProxies, foreignChildren);
+              RowValues rowValues = mapper.toValues(row, null, foreignChildren);
               final Uri uri = cr.insert(contentUri, rowValues.toContentValues());
               if (uri == null) return (RunReturn) (Long) (-1L);
               insertedIds[i] = Long.parseLong(uri.getLastPathSegment());
               if (withIdMethod != null) {
                 values.set(i, (RowType) withIdMethod.invoke(row, insertedIds[i]));
               } else if (rowIdProxy != null) {
-                rowIdProxy.set(row, insertedIds[i]);
+                rowIdProxy.setLong(row, insertedIds[i]);
               }
             }
           } else throw new IllegalStateException("Database helper was null.");
@@ -527,8 +1134,7 @@ public class Query<RowType, RunReturn> {
             if (rowIdProxy != null && values != null) {
               for (RowType rowValue : values) {
                 if (rowValue == null) continue;
-                Long id = rowIdProxy.get(rowValue);
-                if (id == null || id <= 0) {
+                if (rowIdProxy.getLong(rowValue) <= 0) {
                   allHaveIds = false;
                   break;
                 }
@@ -546,16 +1152,15 @@ public class Query<RowType, RunReturn> {
               int updatedCount = 0;
               for (RowType row : values) {
                 if (row == null) continue;
-                Long rowId = rowIdProxy.get(row);
-                RowValues rowValues =
-                    Converter.classToValues(row, projection, clsProxies, foreignChildren);
-                ContentValues values = rowValues.toContentValues();
+                long rowId = rowIdProxy.getLong(row);
+                RowValues rowValues = mapper.toValues(row, projection, foreignChildren);
                 if (inquiryInstance._getDatabase() != null) {
                   updatedCount +=
                       inquiryInstance
                           ._getDatabase()
-                          .update(tableName, values, "_id = ?", new String[] {rowId + ""});
+                          .update(tableName, rowValues, "_id = ?", new Object[] {rowId});
                 } else if (contentUri != null) {
+                  ContentValues values = rowValues.toContentValues();
                   updatedCount +=
                       cr.update(contentUri, values, "_id = ?", new String[] {rowId + ""});
                 } else throw new IllegalStateException("Database helper was null.");
@@ -575,21 +1180,21 @@ public class Query<RowType, RunReturn> {
             if (firstNotNull == null)
               throw new IllegalStateException("No non-null values specified to update.");
 
-            RowValues rowValues =
-                Converter.classToValues(firstNotNull, projection, clsProxies, foreignChildren);
-            ContentValues values = rowValues.toContentValues();
+            RowValues rowValues = mapper.toValues(firstNotNull, projection, foreignChildren);
             if (inquiryInstance._getDatabase() != null) {
               RunReturn value =
                   (RunReturn)
                       (Integer)
                           inquiryInstance
                               ._getDatabase()
-                              .update(tableName, values, getWhere(), getWhereArgs());
+                              .update(tableName, rowValues, getWhere(), getBindArgs());
               postRun(true);
               return value;
             } else if (contentUri != null)
               return (RunReturn)
-                  (Integer) cr.update(contentUri, values, getWhere(), getWhereArgs());
+                  (Integer)
+                      cr.update(
+                          contentUri, rowValues.toContentValues(), getWhere(), getWhereArgs());
             else throw new IllegalStateException("Database helper was null.");
           }
         case DELETE:
@@ -601,9 +1206,9 @@ public class Query<RowType, RunReturn> {
               for (int i = 0; i < values.size(); i++) {
                 if (values.isNull(i)) continue;
                 nonNullFound++;
-                Long id = rowIdProxy.get(values.get(i));
+                long id = rowIdProxy.getLong(values.get(i));
                 idsToDelete[i] = id;
-                if (id == null || id <= 0) {
+                if (id <= 0) {
                   idsToDelete = null;
                   break;
                 }
@@ -628,7 +1233,7 @@ public class Query<RowType, RunReturn> {
                       (Integer)
                           inquiryInstance
                               ._getDatabase()
-                              .delete(tableName, getWhere(), getWhereArgs());
+                              .delete(tableName, getWhere(), getBindArgs());
               traverseDelete(rowsThatWillDelete);
               return value;
             } else if (contentUri != null)
@@ -739,8 +1344,8 @@ public class Query<RowType, RunReturn> {
                 + " references a non-existent column (or a column which can't hold an Int64 ID): "
                 + fkAnn.foreignColumnName());
 
-      Long rowId = rowIdProxy.get(row);
-      if (rowId == null || rowId <= 0)
+      long rowId = rowIdProxy.getLong(row);
+      if (rowId <= 0)
         throw new IllegalStateException(
             "The current row's ID is 0, you cannot insert/update @ForeignKey fields if the parent class has no ID.");
 
@@ -763,9 +1368,9 @@ public class Query<RowType, RunReturn> {
       if ((array != null && array.length > 0) || (list != null && list.size() > 0)) {
         // Update foreign row columns with this row's ID
         if (array != null) {
-          for (Object child : array) foreignKeyProxy.set(child, rowId);
+          for (Object child : array) foreignKeyProxy.setLong(child, rowId);
         } else {
-          for (int i = 0; i < list.size(); i++) foreignKeyProxy.set(list.get(i), rowId);
+          for (int i = 0; i < list.size(); i++) foreignKeyProxy.setLong(list.get(i), rowId);
         }
 
         if (updateMode) {
@@ -0,0 +1,90 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of EXPLAIN QUERY PLAN for a statement, see {@link QueryPlanListener}.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class QueryPlan {
+
+  @NonNull private final String sql;
+  @Nullable private final String tableName;
+  @Nullable private final String where;
+  @NonNull private final List<String> details;
+  private final boolean fullScan;
+  private final boolean tempSort;
+
+  QueryPlan(
+      @NonNull String sql,
+      @Nullable String tableName,
+      @Nullable String where,
+      @NonNull List<String> details) {
+    this.sql = sql;
+    this.tableName = tableName;
+    this.where = where;
+    this.details = Collections.unmodifiableList(details);
+
+    boolean fullScan = false;
+    boolean tempSort = false;
+    for (String detail : details) {
+      // "SCAN TABLE users" before SQLite 3.36, "SCAN users" after; index scans say "USING"
+      if (detail.startsWith("SCAN ")
+          && !detail.contains(" USING ")
+          && !detail.startsWith("SCAN CONSTANT ROW")
+          && !detail.startsWith("SCAN SUBQUERY")) {
+        fullScan = true;
+      }
+      if (detail.startsWith("USE TEMP B-TREE")) tempSort = true;
+    }
+    // A full scan is expected when there's nothing to filter by
+    this.fullScan = fullScan && where != null && !where.isEmpty();
+    this.tempSort = tempSort;
+  }
+
+  @NonNull
+  public String getSql() {
+    return sql;
+  }
+
+  /** The table that was queried, or null if it's unknown. */
+  @Nullable
+  public String getTableName() {
+    return tableName;
+  }
+
+  /** The where clause with its '?' placeholders, or null if there was none. */
+  @Nullable
+  public String getWhere() {
+    return where;
+  }
+
+  /** The detail column of each row of the plan. */
+  @NonNull
+  public List<String> getDetails() {
+    return details;
+  }
+
+  /** True if a table is read row by row without an index, despite a where clause. */
+  public boolean hasFullScan() {
+    return fullScan;
+  }
+
+  /** True if results are sorted, grouped or made distinct through a temporary B-tree. */
+  public boolean hasTempSort() {
+    return tempSort;
+  }
+
+  boolean hasWarning() {
+    return fullScan || tempSort;
+  }
+
+  @Override
+  public String toString() {
+    return sql + " " + details;
+  }
+}
@@ -0,0 +1,120 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs EXPLAIN QUERY PLAN the first time each SQL statement is seen, and passes plans with warnings
+ * to a {@link QueryPlanListener}. Plans are cached by the shape of their SQL, so the cost is only
+ * paid once per statement.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+final class QueryPlanInspector {
+
+  static final int MAX_PLANS = 256;
+
+  @NonNull private final QueryPlanListener listener;
+  @NonNull private final Map<String, QueryPlan> plans;
+
+  QueryPlanInspector(@NonNull QueryPlanListener listener) {
+    this.listener = listener;
+    this.plans =
+        new LinkedHashMap<String, QueryPlan>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, QueryPlan> eldest) {
+            return size() > MAX_PLANS;
+          }
+        };
+  }
+
+  void inspect(
+      @NonNull SQLiteDatabase db,
+      @NonNull String sql,
+      @Nullable Object[] args,
+      @Nullable String tableName,
+      @Nullable String where) {
+    final String shape = shapeOf(sql);
+    synchronized (plans) {
+      if (plans.containsKey(shape)) return;
+    }
+    final QueryPlan plan;
+    try {
+      plan = new QueryPlan(sql, tableName, where, explain(db, sql, args));
+    } catch (SQLException e) {
+      Log.w(QueryPlanInspector.class.getName(), "Unable to explain " + sql, e);
+      return;
+    }
+    synchronized (plans) {
+      if (plans.put(shape, plan) != null) return;
+    }
+    if (plan.hasWarning()) listener.onQueryPlanWarning(plan);
+  }
+
+  @NonNull
+  private static List<String> explain(
+      @NonNull SQLiteDatabase db, @NonNull String sql, @Nullable Object[] args) {
+    final Cursor cursor = SQLiteHelper.select(db, "EXPLAIN QUERY PLAN " + sql, args);
+    final List<String> details = new ArrayList<>(cursor.getCount());
+    try {
+      int detailIndex = cursor.getColumnIndex("detail");
+      if (detailIndex < 0) detailIndex = cursor.getColumnCount() - 1;
+      while (cursor.moveToNext()) details.add(cursor.getString(detailIndex));
+    } finally {
+      cursor.close();
+    }
+    return details;
+  }
+
+  /**
+   * Collapses the values of IN lists, which {@link Utils#createInListString(Object[], List)}
+   * inlines into the SQL when there are many of them, so each list doesn't count as a new
+   * statement. Subqueries are kept as they are.
+   */
+  @NonNull
+  static String shapeOf(@NonNull String sql) {
+    StringBuilder shape = null;
+    int copied = 0;
+    int index = 0;
+    while ((index = indexOfIn(sql, index)) != -1) {
+      final int open = index + 4;
+      final int close = closingParenthesis(sql, open);
+      if (close == -1) break;
+      if (!sql.regionMatches(true, open, "SELECT", 0, 6)) {
+        if (shape == null) shape = new StringBuilder(sql.length());
+        shape.append(sql, copied, open).append("...");
+        copied = close;
+      }
+      index = close;
+    }
+    if (shape == null) return sql;
+    return shape.append(sql, copied, sql.length()).toString();
+  }
+
+  private static int indexOfIn(@NonNull String sql, int from) {
+    for (int i = from; i + 4 <= sql.length(); i++) {
+      if (sql.regionMatches(true, i, " IN (", 0, 5)) return i + 1;
+    }
+    return -1;
+  }
+
+  /** The index of the parenthesis which closes the one before start, skipping quoted strings. */
+  private static int closingParenthesis(@NonNull String sql, int start) {
+    boolean quoted = false;
+    for (int i = start; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (c == '\'') quoted = !quoted;
+      else if (!quoted && c == '(') return -1;
+      else if (!quoted && c == ')') return i;
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,16 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Notified of queries whose plan scans a whole table despite a where clause, or sorts through a
+ * temporary B-tree. Each distinct SQL statement is only reported once per Inquiry instance and its
+ * copies; long IN lists which are inlined into the SQL don't count as distinct. Called on the
+ * thread which runs the query.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public interface QueryPlanListener {
+
+  void onQueryPlanWarning(@NonNull QueryPlan plan);
+}
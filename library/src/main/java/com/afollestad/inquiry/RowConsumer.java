@@ -0,0 +1,7 @@
+package com.afollestad.inquiry;
+
+/** @author Aidan Follestad (afollestad) */
+public interface RowConsumer<T> {
+
+  void accept(T row);
+}
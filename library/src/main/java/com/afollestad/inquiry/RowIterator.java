@@ -0,0 +1,160 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Maps rows one at a time, as they're iterated. The Cursor is closed once the last row has been
+ * read; call {@link #close()} if you stop iterating early.
+ *
+ * <p>Unsorted queries of a table which select an INTEGER PRIMARY KEY _id are read in pages ordered
+ * by _id, each starting after the last _id of the previous page. Pages start small, so the first
+ * row is available after reading only a few. Other queries read a single Cursor, which keeps memory
+ * use constant, but SQLite still counts every result before the first row is returned.
+ *
+ * <p>An instance can only be iterated once.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class RowIterator<RowType> implements Iterator<RowType>, Iterable<RowType>, Closeable {
+
+  // Pages double in size up to the maximum
+  static final int FIRST_PAGE_SIZE = 16;
+  static final int MAX_PAGE_SIZE = 256;
+
+  /** Opens a page of rows ordered by _id, which have an _id above the given one. */
+  interface PageSource {
+
+    @Nullable
+    Cursor open(long afterId, int count);
+  }
+
+  /**
+   * Paging by _id skips NULL ids and rows which share an id, so it's only used when _id is an
+   * integer primary key.
+   */
+  static boolean canPage(@NonNull RowMapper<?> mapper) {
+    final FieldDelegate id = mapper.getColumnDelegate("_id");
+    if (id == null || id.getColumn() == null || !id.getColumn().primaryKey()) return false;
+    final Class<?> type = id.getType();
+    return type == long.class || type == Long.class || type == int.class || type == Integer.class;
+  }
+
+  @NonNull private final Query<RowType, ?> query;
+  @NonNull private final RowMapper<RowType> mapper;
+  @Nullable private Cursor cursor;
+  @Nullable private CursorBinding<RowType> binding;
+  private boolean hasNext;
+
+  @Nullable private final PageSource pages;
+  private int pageSize = FIRST_PAGE_SIZE;
+  // Rows asked for and read from the current page, and left to ask for; -1 is unlimited
+  private int requested;
+  private int pageRows;
+  private int remaining;
+  private int idIndex = -1;
+  private long lastId = Long.MIN_VALUE;
+
+  RowIterator(
+      @NonNull Query<RowType, ?> query,
+      @NonNull RowMapper<RowType> mapper,
+      @Nullable Cursor cursor) {
+    this.query = query;
+    this.mapper = mapper;
+    this.cursor = cursor;
+    this.pages = null;
+    advance();
+  }
+
+  RowIterator(
+      @NonNull Query<RowType, ?> query,
+      @NonNull RowMapper<RowType> mapper,
+      @NonNull PageSource pages,
+      int limit) {
+    this.query = query;
+    this.mapper = mapper;
+    this.pages = pages;
+    this.remaining = limit > 0 ? limit : -1;
+    this.cursor = openPage();
+    advance();
+  }
+
+  @Nullable
+  private Cursor openPage() {
+    if (pages == null || remaining == 0) return null;
+    requested = remaining > 0 ? Math.min(pageSize, remaining) : pageSize;
+    if (remaining > 0) remaining -= requested;
+    pageSize = Math.min(pageSize * 2, MAX_PAGE_SIZE);
+    pageRows = 0;
+    final Cursor page = pages.open(lastId, requested);
+    if (page != null && idIndex == -1) {
+      idIndex = page.getColumnIndex("_id");
+      if (idIndex == -1) {
+        page.close();
+        throw new IllegalStateException("Didn't find a column named _id in this Cursor.");
+      }
+    }
+    return page;
+  }
+
+  private void advance() {
+    while (cursor != null) {
+      if (cursor.moveToNext()) {
+        hasNext = true;
+        if (pages != null) {
+          lastId = cursor.getLong(idIndex);
+          pageRows++;
+        }
+        return;
+      }
+      if (pages == null || pageRows < requested) break;
+      // The page was full, so there may be more rows after it
+      cursor.close();
+      cursor = openPage();
+    }
+    close();
+  }
+
+  @NonNull
+  @Override
+  public Iterator<RowType> iterator() {
+    return this;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return hasNext;
+  }
+
+  @Override
+  public RowType next() {
+    if (!hasNext || cursor == null) throw new NoSuchElementException();
+    try {
+      if (binding == null) binding = new CursorBinding<>(mapper, cursor);
+      final RowType row = binding.read(query, cursor);
+      advance();
+      return row;
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("Rows can't be removed through a RowIterator.");
+  }
+
+  @Override
+  public void close() {
+    hasNext = false;
+    if (cursor != null) {
+      cursor.close();
+      cursor = null;
+    }
+  }
+}
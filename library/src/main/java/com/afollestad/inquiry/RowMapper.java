@@ -0,0 +1,173 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds everything needed to turn cursor rows into instances of a row class: the column to delegate
+ * map, the foreign key delegates, and the constructor (or Builder + build method). It's discovered
+ * once per row class through reflection and then shared by every Query, including the short-lived
+ * Inquiry copies used to load foreign children. Mappers are cached per TypeAdapterRegistry, since
+ * the adapters of each column are resolved here too.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+final class RowMapper<T> {
+
+  @NonNull final Class<T> rowClass;
+  @Nullable final Class<?> builderClass;
+  @NonNull final List<FieldDelegate> delegates;
+  @NonNull final TypeAdapter<?>[] adapters;
+  @NonNull final List<FieldDelegate> foreignKeys;
+  /** Indexes of the LazyBlob columns in delegates and adapters. */
+  @NonNull final int[] lazyBlobSlots;
+
+  @NonNull private final Map<String, Integer> columnSlots;
+  @NonNull private final Constructor<?> constructor;
+  @Nullable private final Method buildMethod;
+  @Nullable final InquiryMapper<T> generated;
+
+  private RowMapper(
+      @NonNull Inquiry inquiry,
+      @NonNull TypeAdapterRegistry typeAdapters,
+      @NonNull Class<T> rowClass) {
+    this.rowClass = rowClass;
+    this.builderClass = inquiry.getBuilderClass(rowClass);
+    this.delegates =
+        Collections.unmodifiableList(Converter.classFieldDelegates(rowClass, false, builderClass));
+    this.adapters = typeAdapters.resolveAll(delegates);
+
+    final HashMap<String, Integer> columns = new HashMap<>(delegates.size());
+    final List<FieldDelegate> foreignKeys = new ArrayList<>(0);
+    final List<Integer> lazyBlobSlots = new ArrayList<>(0);
+    boolean builtInAdapters = true;
+    for (int i = 0; i < delegates.size(); i++) {
+      final FieldDelegate proxy = delegates.get(i);
+      if (proxy.isForeignKey()) {
+        foreignKeys.add(proxy);
+        continue;
+      } else if (proxy.ignore()) {
+        continue;
+      }
+      columns.put(proxy.name(), i);
+      if (adapters[i] instanceof BuiltInTypeAdapters.LazyBlobAdapter) lazyBlobSlots.add(i);
+      if (adapters[i] != null && !adapters[i].isBuiltIn()) builtInAdapters = false;
+    }
+    this.columnSlots = Collections.unmodifiableMap(columns);
+    this.foreignKeys = Collections.unmodifiableList(foreignKeys);
+    this.lazyBlobSlots = new int[lazyBlobSlots.size()];
+    for (int i = 0; i < this.lazyBlobSlots.length; i++) {
+      this.lazyBlobSlots[i] = lazyBlobSlots.get(i);
+    }
+
+    if (builderClass != null) {
+      this.constructor = Utils.getDefaultConstructor(inquiry, builderClass);
+      this.buildMethod = inquiry.getBuildMethod(rowClass, builderClass);
+      if (buildMethod == null) {
+        throw new IllegalStateException(
+            "Builder "
+                + builderClass.getName()
+                + " must "
+                + "contain a void method called build() which returns "
+                + rowClass.getName());
+      }
+    } else {
+      this.constructor = Utils.getDefaultConstructor(inquiry, rowClass);
+      this.buildMethod = null;
+    }
+    // Generated mappers only know the built-in conversions
+    this.generated =
+        foreignKeys.isEmpty() && builtInAdapters ? findGeneratedMapper(rowClass) : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  private static <T> InquiryMapper<T> findGeneratedMapper(@NonNull Class<T> rowClass) {
+    final String packagePrefix =
+        rowClass.getPackage() != null ? rowClass.getPackage().getName() + "." : "";
+    final String simpleName = rowClass.getName().substring(packagePrefix.length());
+    final String mapperName = packagePrefix + simpleName.replace('$', '_') + "_InquiryMapper";
+    try {
+      return (InquiryMapper<T>) Class.forName(mapperName).newInstance();
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to instantiate generated mapper " + mapperName, e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @NonNull
+  static <T> RowMapper<T> get(@NonNull Inquiry inquiry, @NonNull Class<T> rowClass) {
+    final TypeAdapterRegistry typeAdapters = inquiry.getTypeAdapters();
+    synchronized (typeAdapters.mapperCache) {
+      RowMapper<T> mapper = (RowMapper<T>) typeAdapters.mapperCache.get(rowClass);
+      if (mapper == null) {
+        mapper = new RowMapper<>(inquiry, typeAdapters, rowClass);
+        typeAdapters.mapperCache.put(rowClass, mapper);
+      }
+      return mapper;
+    }
+  }
+
+  /** Returns the index of the column in delegates and adapters, or -1. */
+  int getColumnSlot(@NonNull String columnName) {
+    final Integer slot = columnSlots.get(columnName);
+    return slot != null ? slot : -1;
+  }
+
+  /** The number of columns the row class is stored in. */
+  int columnCount() {
+    return columnSlots.size();
+  }
+
+  @Nullable
+  FieldDelegate getColumnDelegate(@NonNull String columnName) {
+    final int slot = getColumnSlot(columnName);
+    return slot != -1 ? delegates.get(slot) : null;
+  }
+
+  @NonNull
+  RowValues toValues(
+      @NonNull T row,
+      @Nullable String[] projection,
+      @NonNull Map<Object, FieldDelegate> foreignChildrenMap) {
+    if (generated != null && projection == null) {
+      final RowValues values = new RowValues();
+      generated.write(row, values);
+      return values;
+    }
+    //noinspection ConstantConditions
+    return Converter.classToValues(row, projection, delegates, adapters, foreignChildrenMap);
+  }
+
+  /** Returns the object that column values are loaded into, a Builder or the row itself. */
+  @NonNull
+  Object newTarget() {
+    try {
+      return constructor.newInstance();
+    } catch (Throwable t) {
+      throw new RuntimeException(
+          "Failed to instantiate " + constructor.getDeclaringClass().getName(), t);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @NonNull
+  T finish(@NonNull Object target) {
+    if (buildMethod == null) return (T) target;
+    try {
+      return (T) buildMethod.invoke(target);
+    } catch (Exception e) {
+      //noinspection ConstantConditions
+      throw new IllegalStateException("Failed to invoke build() of " + builderClass.getName(), e);
+    }
+  }
+}
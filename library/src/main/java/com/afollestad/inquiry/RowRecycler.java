@@ -0,0 +1,57 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+
+/**
+ * Holds row objects which are no longer used, so queries can load new results into them rather than
+ * creating new instances. Attach one to a query with {@link Query#recycler(RowRecycler)}.
+ *
+ * <p>Rows are only reused when a query selects every column of the row class, and the class isn't
+ * created through a Builder or a generated mapper; otherwise new instances are created as usual.
+ * Don't recycle rows which are still referenced elsewhere, their values will be overwritten.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class RowRecycler<RowType> {
+
+  private final int maxSize;
+  @NonNull private final ArrayDeque<RowType> pool;
+
+  public RowRecycler() {
+    this(256);
+  }
+
+  /** @param maxSize The most rows that are held at once, further rows are dropped. */
+  public RowRecycler(int maxSize) {
+    this.maxSize = maxSize;
+    this.pool = new ArrayDeque<>(Math.min(maxSize, 256));
+  }
+
+  public synchronized void recycle(@Nullable RowType row) {
+    if (row != null && pool.size() < maxSize) pool.push(row);
+  }
+
+  public synchronized void recycleAll(@NonNull Collection<? extends RowType> rows) {
+    for (RowType row : rows) recycle(row);
+  }
+
+  public synchronized void recycleAll(@NonNull RowType[] rows) {
+    for (RowType row : rows) recycle(row);
+  }
+
+  public synchronized int size() {
+    return pool.size();
+  }
+
+  public synchronized void clear() {
+    pool.clear();
+  }
+
+  @Nullable
+  synchronized RowType obtain() {
+    return pool.poll();
+  }
+}
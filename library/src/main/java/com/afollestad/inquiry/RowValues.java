@@ -9,7 +9,7 @@ import java.util.Iterator;
 import java.util.Map;
 
 /** @author Aidan Follestad (afollestad) */
-class RowValues implements Iterable<Map.Entry<String, Object>> {
+public class RowValues implements Iterable<Map.Entry<String, Object>> {
 
   private Map<String, Object> values;
 
@@ -17,6 +17,10 @@ class RowValues implements Iterable<Map.Entry<String, Object>> {
     this.values = new HashMap<>(0);
   }
 
+  public void putNull(@NonNull String key) {
+    values.put(key, null);
+  }
+
   public void put(@NonNull String key, String value) {
     values.put(key, value);
   }
@@ -135,6 +139,8 @@ class RowValues implements Iterable<Map.Entry<String, Object>> {
         contentValues.put(entry.getKey(), (Long) entry.getValue());
       else if (entry.getValue() instanceof Float)
         contentValues.put(entry.getKey(), (Float) entry.getValue());
+      else if (entry.getValue() instanceof Double)
+        contentValues.put(entry.getKey(), (Double) entry.getValue());
       else if (entry.getValue() instanceof Boolean)
         contentValues.put(entry.getKey(), (Boolean) entry.getValue());
       else if (entry.getValue() instanceof Byte)
@@ -0,0 +1,84 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.HashMap;
+
+/**
+ * A typed view of the current row of a Cursor, used by {@link Query#scan(RowVisitor)} to read
+ * columns without creating row objects. Resolve a column name to a handle once with {@link
+ * #column(String)}, then read it from every row through the indexed getters.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public final class RowView {
+
+  @NonNull private final RowMapper<?> mapper;
+  @NonNull private final Cursor cursor;
+  @NonNull private final HashMap<String, Integer> columns;
+
+  RowView(@NonNull RowMapper<?> mapper, @NonNull Cursor cursor) {
+    this.mapper = mapper;
+    this.cursor = cursor;
+    this.columns = new HashMap<>(cursor.getColumnCount());
+  }
+
+  /** Returns the handle of a selected @Column of the row class. */
+  public int column(@NonNull String name) {
+    final Integer cached = columns.get(name);
+    if (cached != null) return cached;
+    if (mapper.getColumnSlot(name) == -1) {
+      throw new IllegalArgumentException(name + " is not a column of " + mapper.rowClass.getName());
+    }
+    final int index = cursor.getColumnIndex(name);
+    if (index == -1) {
+      throw new IllegalArgumentException("Column " + name + " was not selected by this query.");
+    }
+    columns.put(name, index);
+    return index;
+  }
+
+  /** The index of the current row in the results. */
+  public int position() {
+    return cursor.getPosition();
+  }
+
+  public boolean isNull(int column) {
+    return cursor.isNull(column);
+  }
+
+  public long getLong(int column) {
+    return cursor.getLong(column);
+  }
+
+  public int getInt(int column) {
+    return cursor.getInt(column);
+  }
+
+  public short getShort(int column) {
+    return cursor.getShort(column);
+  }
+
+  public double getDouble(int column) {
+    return cursor.getDouble(column);
+  }
+
+  public float getFloat(int column) {
+    return cursor.getFloat(column);
+  }
+
+  public boolean getBoolean(int column) {
+    return cursor.getInt(column) == 1;
+  }
+
+  @Nullable
+  public String getString(int column) {
+    return cursor.getString(column);
+  }
+
+  @Nullable
+  public byte[] getBlob(int column) {
+    return cursor.getBlob(column);
+  }
+}
@@ -0,0 +1,10 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+
+/** @author Aidan Follestad (afollestad) */
+public interface RowVisitor {
+
+  /** The view is reused for every row, don't keep a reference to it. */
+  void visit(@NonNull RowView row);
+}
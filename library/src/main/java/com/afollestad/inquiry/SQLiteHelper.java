@@ -1,32 +1,79 @@
 package com.afollestad.inquiry;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteQuery;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.Log;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 class SQLiteHelper extends SQLiteOpenHelper {
 
+  private final StatementCache statements;
+  // Null unless a QueryPlanListener was set on the Inquiry instance, shared with its copies
+  private final QueryPlanInspector planInspector;
+  // Tables which were already created, shared with copies so their schema isn't built again
+  private final Set<String> createdTables;
+
   SQLiteHelper(Context context, String databaseName, int version) {
+    this(context, databaseName, version, StatementCache.DEFAULT_SIZE, null, new HashSet<String>());
+  }
+
+  SQLiteHelper(
+      Context context,
+      String databaseName,
+      int version,
+      int statementCacheSize,
+      QueryPlanInspector planInspector,
+      Set<String> createdTables) {
     super(
         context,
         databaseName == null || databaseName.equals(":memory") ? null : databaseName,
         null,
         version);
+    this.statements = new StatementCache(statementCacheSize);
+    this.planInspector = planInspector;
+    this.createdTables = createdTables;
+  }
+
+  StatementCache getStatementCache() {
+    return statements;
   }
 
   private String lastTableName;
 
-  void createTableIfNecessary(String name, Class<?> rowCls) {
-    lastTableName = name;
-    try {
-      String columns = Converter.getClassSchema(rowCls);
-      String createStatement = String.format("CREATE TABLE IF NOT EXISTS %s (%s);", name, columns);
-      getWritableDatabase().execSQL(createStatement);
-    } catch (Exception e) {
-      Utils.wrapInReIfNecessary(e);
+  void createTableIfNecessary(String name, Class<?> rowCls, TypeAdapterRegistry adapters) {
+    // Held until the table exists, so other threads don't query it before then
+    synchronized (createdTables) {
+      lastTableName = name;
+      if (createdTables.contains(name)) return;
+      try {
+        String columns = Converter.getClassSchema(rowCls, adapters);
+        String createStatement =
+            String.format("CREATE TABLE IF NOT EXISTS %s (%s);", name, columns);
+        getWritableDatabase().execSQL(createStatement);
+        createdTables.add(name);
+      } catch (Exception e) {
+        Utils.wrapInReIfNecessary(e);
+      }
+    }
+  }
+
+  /** Called when a table is dropped, so it's created again by the next query. */
+  void forgetTable(String name) {
+    synchronized (createdTables) {
+      createdTables.remove(name);
     }
   }
 
@@ -44,6 +91,7 @@ class SQLiteHelper extends SQLiteOpenHelper {
             + newVersion
             + ", which will destroy all old data");
     db.execSQL("DROP TABLE IF EXISTS " + lastTableName);
+    forgetTable(lastTableName);
     onCreate(db);
   }
 
@@ -51,23 +99,193 @@ class SQLiteHelper extends SQLiteOpenHelper {
       String tableName,
       String[] projection,
       String selection,
-      String[] selectionArgs,
-      String sortOrder) {
-    return getReadableDatabase()
-        .query(tableName, projection, selection, selectionArgs, null, null, sortOrder);
+      Object[] selectionArgs,
+      String sortOrder,
+      int limit) {
+    final String sql = selectSql(tableName, projection, selection, sortOrder, limit);
+    return rawQuery(sql, selectionArgs, tableName, selection);
   }
 
-  public final long insert(String tableName, ContentValues values) {
-    return getWritableDatabase().insert(tableName, null, values);
+  /** Runs a SELECT, binding each argument with its own type rather than as a String. */
+  public final Cursor rawQuery(String sql, Object[] selectionArgs) {
+    return rawQuery(sql, selectionArgs, null, null);
   }
 
-  public final int delete(String tableName, String selection, String[] selectionArgs) {
-    if (selection == null) selection = "1";
-    return getWritableDatabase().delete(tableName, selection, selectionArgs);
+  /**
+   * The table name and selection are only used to describe the query plan. Not final, so tests can
+   * stub the database.
+   */
+  Cursor rawQuery(String sql, Object[] selectionArgs, String tableName, String selection) {
+    final SQLiteDatabase db = getReadableDatabase();
+    if (planInspector != null) planInspector.inspect(db, sql, selectionArgs, tableName, selection);
+    return select(db, sql, selectionArgs);
+  }
+
+  static Cursor select(SQLiteDatabase db, String sql, Object[] selectionArgs) {
+    if (selectionArgs == null || selectionArgs.length == 0) return db.rawQuery(sql, null);
+    return db.rawQueryWithFactory(new BindingCursorFactory(selectionArgs), sql, null, null);
+  }
+
+  public final long insert(String tableName, RowValues values) {
+    final List<Object> args = new ArrayList<>(values.size());
+    final String sql = insertSql(tableName, values, args);
+    try {
+      return statements.executeInsert(getWritableDatabase(), sql, args);
+    } catch (SQLException e) {
+      // Matches SQLiteDatabase.insert(), which returns -1 rather than throwing
+      Log.e(SQLiteHelper.class.getName(), "Error inserting " + values, e);
+      return -1;
+    }
+  }
+
+  public final int delete(String tableName, String selection, Object[] selectionArgs) {
+    final List<Object> args = new ArrayList<>(selectionArgs != null ? selectionArgs.length : 0);
+    final String sql =
+        deleteSql(tableName, selection != null ? selection : "1", selectionArgs, args);
+    return executeUpdateDelete(sql, args, tableName, selection);
   }
 
   public final int update(
-      String tableName, ContentValues values, String selection, String[] selectionArgs) {
-    return getWritableDatabase().update(tableName, values, selection, selectionArgs);
+      String tableName, RowValues values, String selection, Object[] selectionArgs) {
+    if (values.size() == 0) throw new IllegalArgumentException("Empty values");
+    final List<Object> args = new ArrayList<>(values.size());
+    final String sql = updateSql(tableName, values, selection, selectionArgs, args);
+    return executeUpdateDelete(sql, args, tableName, selection);
+  }
+
+  private int executeUpdateDelete(
+      String sql, List<Object> args, String tableName, String selection) {
+    final SQLiteDatabase db = getWritableDatabase();
+    if (planInspector != null) planInspector.inspect(db, sql, args.toArray(), tableName, selection);
+    return statements.executeUpdateDelete(db, sql, args);
+  }
+
+  @Override
+  public synchronized void close() {
+    statements.clear();
+    super.close();
+  }
+
+  @NonNull
+  static String selectSql(
+      @NonNull String tableName,
+      @Nullable String[] projection,
+      @Nullable String selection,
+      @Nullable String sortOrder,
+      int limit) {
+    return selectSql(tableName, projection, selection, null, null, sortOrder, limit);
+  }
+
+  @NonNull
+  static String selectSql(
+      @NonNull String tableName,
+      @Nullable String[] projection,
+      @Nullable String selection,
+      @Nullable String groupBy,
+      @Nullable String having,
+      @Nullable String sortOrder,
+      int limit) {
+    return selectSql(tableName, false, projection, selection, groupBy, having, sortOrder, limit);
+  }
+
+  @NonNull
+  static String selectSql(
+      @NonNull String tableName,
+      boolean distinct,
+      @Nullable String[] projection,
+      @Nullable String selection,
+      @Nullable String groupBy,
+      @Nullable String having,
+      @Nullable String sortOrder,
+      int limit) {
+    final StringBuilder sql = new StringBuilder(128).append("SELECT ");
+    if (distinct) sql.append("DISTINCT ");
+    if (projection == null || projection.length == 0) {
+      sql.append('*');
+    } else {
+      for (int i = 0; i < projection.length; i++) {
+        if (i > 0) sql.append(", ");
+        sql.append(projection[i]);
+      }
+    }
+    sql.append(" FROM ").append(tableName);
+    if (selection != null && !selection.isEmpty()) sql.append(" WHERE ").append(selection);
+    if (groupBy != null && !groupBy.isEmpty()) sql.append(" GROUP BY ").append(groupBy);
+    if (having != null && !having.isEmpty()) sql.append(" HAVING ").append(having);
+    if (sortOrder != null && !sortOrder.isEmpty()) sql.append(" ORDER BY ").append(sortOrder);
+    if (limit > 0) sql.append(" LIMIT ").append(limit);
+    return sql.toString();
+  }
+
+  @NonNull
+  static String insertSql(
+      @NonNull String tableName, @NonNull RowValues values, @NonNull List<Object> args) {
+    final StringBuilder sql = new StringBuilder(64).append("INSERT INTO ").append(tableName);
+    if (values.size() == 0) return sql.append(" DEFAULT VALUES").toString();
+    sql.append(" (");
+    for (Map.Entry<String, Object> entry : values) {
+      if (!args.isEmpty()) sql.append(", ");
+      sql.append(entry.getKey());
+      args.add(entry.getValue());
+    }
+    sql.append(") VALUES (");
+    for (int i = 0; i < args.size(); i++) sql.append(i > 0 ? ", ?" : "?");
+    return sql.append(')').toString();
+  }
+
+  @NonNull
+  static String updateSql(
+      @NonNull String tableName,
+      @NonNull RowValues values,
+      @Nullable String selection,
+      @Nullable Object[] selectionArgs,
+      @NonNull List<Object> args) {
+    final StringBuilder sql = new StringBuilder(64).append("UPDATE ").append(tableName);
+    sql.append(" SET ");
+    for (Map.Entry<String, Object> entry : values) {
+      if (!args.isEmpty()) sql.append(", ");
+      sql.append(entry.getKey()).append(" = ?");
+      args.add(entry.getValue());
+    }
+    appendWhere(sql, selection, selectionArgs, args);
+    return sql.toString();
+  }
+
+  @NonNull
+  static String deleteSql(
+      @NonNull String tableName,
+      @Nullable String selection,
+      @Nullable Object[] selectionArgs,
+      @NonNull List<Object> args) {
+    final StringBuilder sql = new StringBuilder(64).append("DELETE FROM ").append(tableName);
+    appendWhere(sql, selection, selectionArgs, args);
+    return sql.toString();
+  }
+
+  private static void appendWhere(
+      @NonNull StringBuilder sql,
+      @Nullable String selection,
+      @Nullable Object[] selectionArgs,
+      @NonNull List<Object> args) {
+    if (selection == null || selection.isEmpty()) return;
+    sql.append(" WHERE ").append(selection);
+    if (selectionArgs != null) Collections.addAll(args, selectionArgs);
+  }
+
+  /** Binds typed arguments to the query that SQLiteDatabase compiled, before it's first run. */
+  private static final class BindingCursorFactory implements SQLiteDatabase.CursorFactory {
+
+    private final Object[] args;
+
+    BindingCursorFactory(Object[] args) {
+      this.args = args;
+    }
+
+    @Override
+    public Cursor newCursor(
+        SQLiteDatabase db, SQLiteCursorDriver driver, String editTable, SQLiteQuery query) {
+      for (int i = 0; i < args.length; i++) StatementCache.bind(query, i + 1, args[i]);
+      return new SQLiteCursor(driver, editTable, query);
+    }
   }
 }
@@ -0,0 +1,119 @@
+package com.afollestad.inquiry;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
+import android.database.sqlite.SQLiteStatement;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+import java.util.List;
+
+/**
+ * Compiled INSERT, UPDATE and DELETE statements, keyed by their SQL. Values are always bound as
+ * arguments, so statements of the same shape share one compiled program no matter which rows they
+ * touch. SQLiteStatement isn't thread safe, so statements are executed one at a time; SQLite only
+ * runs one write at a time per database anyway.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+final class StatementCache {
+
+  static final int DEFAULT_SIZE = 32;
+  // Longer statements usually contain an inlined IN list, and are unlikely to run again
+  private static final int MAX_SQL_LENGTH = 2048;
+
+  @Nullable private final LruCache<String, SQLiteStatement> statements;
+
+  /** @param maxSize The most statements kept compiled at once, 0 disables caching. */
+  StatementCache(int maxSize) {
+    this.statements =
+        maxSize > 0
+            ? new LruCache<String, SQLiteStatement>(maxSize) {
+              @Override
+              protected void entryRemoved(
+                  boolean evicted, String sql, SQLiteStatement oldValue, SQLiteStatement newValue) {
+                oldValue.close();
+              }
+            }
+            : null;
+  }
+
+  @NonNull
+  private SQLiteStatement acquire(@NonNull SQLiteDatabase database, @NonNull String sql) {
+    if (!isCached(sql)) return database.compileStatement(sql);
+    SQLiteStatement statement = statements.get(sql);
+    if (statement == null) {
+      statement = database.compileStatement(sql);
+      statements.put(sql, statement);
+    }
+    return statement;
+  }
+
+  private void release(@NonNull String sql, @NonNull SQLiteStatement statement) {
+    if (!isCached(sql)) statement.close();
+    else statement.clearBindings();
+  }
+
+  private boolean isCached(@NonNull String sql) {
+    return statements != null && sql.length() <= MAX_SQL_LENGTH;
+  }
+
+  synchronized long executeInsert(
+      @NonNull SQLiteDatabase database, @NonNull String sql, @NonNull List<Object> args) {
+    final SQLiteStatement statement = acquire(database, sql);
+    try {
+      bindAll(statement, args);
+      return statement.executeInsert();
+    } finally {
+      release(sql, statement);
+    }
+  }
+
+  synchronized int executeUpdateDelete(
+      @NonNull SQLiteDatabase database, @NonNull String sql, @NonNull List<Object> args) {
+    final SQLiteStatement statement = acquire(database, sql);
+    try {
+      bindAll(statement, args);
+      return statement.executeUpdateDelete();
+    } finally {
+      release(sql, statement);
+    }
+  }
+
+  synchronized int hitCount() {
+    return statements != null ? statements.hitCount() : 0;
+  }
+
+  synchronized int missCount() {
+    return statements != null ? statements.missCount() : 0;
+  }
+
+  synchronized void clear() {
+    if (statements != null) statements.evictAll();
+  }
+
+  private static void bindAll(@NonNull SQLiteProgram program, @NonNull List<Object> args) {
+    for (int i = 0; i < args.size(); i++) bind(program, i + 1, args.get(i));
+  }
+
+  static void bind(@NonNull SQLiteProgram program, int index, @Nullable Object value) {
+    if (value == null) {
+      program.bindNull(index);
+    } else if (value instanceof String) {
+      program.bindString(index, (String) value);
+    } else if (value instanceof Long
+        || value instanceof Integer
+        || value instanceof Short
+        || value instanceof Byte) {
+      program.bindLong(index, ((Number) value).longValue());
+    } else if (value instanceof Float || value instanceof Double) {
+      program.bindDouble(index, ((Number) value).doubleValue());
+    } else if (value instanceof Boolean) {
+      program.bindLong(index, (Boolean) value ? 1 : 0);
+    } else if (value instanceof byte[]) {
+      program.bindBlob(index, (byte[]) value);
+    } else {
+      throw new IllegalStateException("Unknown entry type: " + value.getClass());
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Converts values of a Java type to and from a single SQLite column. Register adapters with {@link
+ * Inquiry.Builder#typeAdapter(Class, TypeAdapter)} to store types such as UUID, BigDecimal, enums
+ * or dates in a plain column, rather than serializing them into a BLOB.
+ *
+ * <p>Adapters are looked up by the exact type of a field or getter method, once per row class.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public abstract class TypeAdapter<T> {
+
+  public static final String TEXT = "TEXT";
+  public static final String INTEGER = "INTEGER";
+  public static final String REAL = "REAL";
+  public static final String BLOB = "BLOB";
+
+  private final boolean builtIn;
+
+  public TypeAdapter() {
+    this.builtIn = false;
+  }
+
+  TypeAdapter(boolean builtIn) {
+    this.builtIn = builtIn;
+  }
+
+  /** The type used for the column in CREATE TABLE statements: TEXT, INTEGER, REAL or BLOB. */
+  @NonNull
+  public abstract String sqlType();
+
+  /** Reads the value of a cell which isn't null. */
+  @Nullable
+  public abstract T read(@NonNull Cursor cursor, int columnIndex);
+
+  /** Puts a value which isn't null into the values that are inserted or updated. */
+  public abstract void write(
+      @NonNull RowValues values, @NonNull String columnName, @NonNull T value);
+
+  /**
+   * The type values are actually stored as. Some built-in adapters declare BLOB columns for
+   * compatibility with old schemas, but store INTEGER or TEXT values in them.
+   */
+  @NonNull
+  String storageType() {
+    return sqlType();
+  }
+
+  boolean isBuiltIn() {
+    return builtIn;
+  }
+
+  /** Whether a cell of the given Cursor.FIELD_TYPE_* can be loaded by this adapter. */
+  boolean accepts(int cursorType) {
+    switch (cursorType) {
+      case Cursor.FIELD_TYPE_INTEGER:
+      case Cursor.FIELD_TYPE_FLOAT:
+        return INTEGER.equals(storageType()) || REAL.equals(storageType());
+      case Cursor.FIELD_TYPE_STRING:
+        return TEXT.equals(storageType());
+      default:
+        return true;
+    }
+  }
+
+  /** Built-in adapters of primitive types override this to skip boxing. */
+  void load(
+      @NonNull Cursor cursor, int columnIndex, @NonNull FieldDelegate proxy, @NonNull Object row) {
+    proxy.set(row, cursor.isNull(columnIndex) ? null : read(cursor, columnIndex));
+  }
+
+  @SuppressWarnings("unchecked")
+  void store(@NonNull FieldDelegate proxy, @NonNull Object row, @NonNull RowValues values) {
+    final Object value = proxy.get(row);
+    if (value != null) write(values, proxy.name(), (T) value);
+  }
+}
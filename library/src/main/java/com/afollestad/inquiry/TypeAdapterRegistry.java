@@ -0,0 +1,80 @@
+package com.afollestad.inquiry;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.afollestad.inquiry.lazyloading.LazyBlob;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The type adapters, BLOB codec and Bitmap pool of an Inquiry instance, plus the row mappers built
+ * with them. Instances without custom adapters share {@link #DEFAULT}; copies of an instance share
+ * its registry.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+final class TypeAdapterRegistry {
+
+  static final TypeAdapterRegistry DEFAULT = new TypeAdapterRegistry(null);
+
+  @NonNull private final HashMap<Class<?>, TypeAdapter<?>> adapters;
+  @NonNull final HashMap<Class<?>, RowMapper<?>> mapperCache = new HashMap<>();
+  @NonNull BlobCodec blobCodec = CompactBlobCodec.INSTANCE;
+  @Nullable BitmapPool bitmapPool;
+
+  TypeAdapterRegistry(@Nullable TypeAdapterRegistry base) {
+    if (base != null) {
+      this.adapters = new HashMap<>(base.adapters);
+      this.blobCodec = base.blobCodec;
+      this.bitmapPool = base.bitmapPool;
+    } else {
+      this.adapters = new HashMap<>(32);
+      BuiltInTypeAdapters.registerAll(this);
+    }
+  }
+
+  <T> void register(@NonNull Class<T> type, @NonNull TypeAdapter<T> adapter) {
+    adapters.put(type, adapter);
+  }
+
+  @Nullable
+  TypeAdapter<?> get(@NonNull Class<?> type) {
+    return adapters.get(type);
+  }
+
+  /** Returns null for foreign keys and ignored fields, which aren't stored in a column. */
+  @Nullable
+  TypeAdapter<?> resolve(@NonNull FieldDelegate proxy) {
+    if (proxy.isForeignKey() || proxy.ignore()) return null;
+    if (LazyBlob.class.isAssignableFrom(proxy.getType())) {
+      return new BuiltInTypeAdapters.LazyBlobAdapter(resolve(proxy, Utils.getLazyBlobType(proxy)));
+    }
+    return resolve(proxy, proxy.getType());
+  }
+
+  @NonNull
+  private TypeAdapter<?> resolve(@NonNull FieldDelegate proxy, @NonNull Class<?> type) {
+    final TypeAdapter<?> adapter = adapters.get(type);
+    if (adapter instanceof BuiltInTypeAdapters.BitmapAdapter) {
+      return ((BuiltInTypeAdapters.BitmapAdapter) adapter)
+          .forColumn(proxy.getBitmapFormat(), bitmapPool);
+    } else if (adapter != null) {
+      return adapter;
+    }
+    return new BuiltInTypeAdapters.SerializedAdapter(type, proxy.originalName(), blobCodec);
+  }
+
+  @NonNull
+  TypeAdapter<?>[] resolveAll(@NonNull List<FieldDelegate> proxies) {
+    final TypeAdapter<?>[] result = new TypeAdapter<?>[proxies.size()];
+    for (int i = 0; i < result.length; i++) result[i] = resolve(proxies.get(i));
+    return result;
+  }
+
+  /** Types without an adapter are encoded into a BLOB. */
+  @NonNull
+  String sqlType(@NonNull FieldDelegate proxy) {
+    final TypeAdapter<?> adapter = resolve(proxy);
+    return adapter != null ? adapter.sqlType() : TypeAdapter.BLOB;
+  }
+}
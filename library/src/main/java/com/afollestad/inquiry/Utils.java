@@ -11,11 +11,17 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /** @author Aidan Follestad (afollestad) */
 class Utils {
 
+  // Longer IN lists are inlined as literals, see createInListString()
+  static final int MAX_IN_PLACEHOLDERS = 256;
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
   @SuppressWarnings("unchecked")
   @CheckResult
   static <T> T newInstance(@NonNull Inquiry inquiry, @NonNull Class<T> cls) {
@@ -28,8 +34,7 @@ class Utils {
   }
 
   @CheckResult
-  private static Constructor<?> getDefaultConstructor(
-      @NonNull Inquiry inquiry, @NonNull Class<?> cls) {
+  static Constructor<?> getDefaultConstructor(@NonNull Inquiry inquiry, @NonNull Class<?> cls) {
     if (Modifier.isAbstract(cls.getModifiers())) {
       String name = cls.getName();
       int lastPeriod = name.lastIndexOf('.');
@@ -92,6 +97,64 @@ class Utils {
     return sb.toString();
   }
 
+  /**
+   * Builds the value list of an IN statement. Lists longer than {@link #MAX_IN_PLACEHOLDERS} would
+   * run into SQLite's limit of 999 variables per statement, so values which can be written as SQL
+   * literals (numbers, booleans, null, byte arrays and most strings) are inlined instead of bound.
+   *
+   * @param unbound Receives the values which still need to be bound to a placeholder, in order.
+   */
+  @NonNull
+  @CheckResult
+  static String createInListString(@NonNull Object[] args, @NonNull List<Object> unbound) {
+    if (args.length <= MAX_IN_PLACEHOLDERS) {
+      Collections.addAll(unbound, args);
+      return createArgsString(args.length);
+    }
+    final StringBuilder sb = new StringBuilder(args.length * 8);
+    sb.append('(');
+    for (int i = 0; i < args.length; i++) {
+      if (i > 0) sb.append(", ");
+      if (!appendLiteral(sb, args[i])) {
+        sb.append('?');
+        unbound.add(args[i]);
+      }
+    }
+    return sb.append(')').toString();
+  }
+
+  /** Returns false if the value can't safely be written as a literal, and must be bound. */
+  private static boolean appendLiteral(@NonNull StringBuilder sb, @Nullable Object value) {
+    if (value == null) {
+      sb.append("NULL");
+    } else if (value instanceof Long
+        || value instanceof Integer
+        || value instanceof Short
+        || value instanceof Byte) {
+      sb.append(((Number) value).longValue());
+    } else if (value instanceof Double || value instanceof Float) {
+      final double number = ((Number) value).doubleValue();
+      if (Double.isNaN(number) || Double.isInfinite(number)) return false;
+      sb.append(number);
+    } else if (value instanceof Boolean) {
+      sb.append((Boolean) value ? '1' : '0');
+    } else if (value instanceof byte[]) {
+      sb.append("X'");
+      for (byte b : (byte[]) value) {
+        sb.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+      }
+      sb.append('\'');
+    } else if (value instanceof String) {
+      final String string = (String) value;
+      // Question marks would throw off the placeholder count of the where statement
+      if (string.indexOf('?') != -1 || string.indexOf('\u0000') != -1) return false;
+      sb.append('\'').append(string.replace("'", "''")).append('\'');
+    } else {
+      return false;
+    }
+    return true;
+  }
+
   @NonNull
   @CheckResult
   static String join(boolean leadingComma, @Nullable String suffix, @NonNull Object... array) {
@@ -115,6 +178,55 @@ class Utils {
     return result;
   }
 
+  /**
+   * Keeps arguments which SQLite can bind natively (numbers, booleans, strings, byte arrays and
+   * null) as they are, and turns anything else into a String.
+   */
+  static Object[] bindableArray(@Nullable Object[] array) {
+    if (array == null || array.length == 0) return null;
+    final Object[] result = new Object[array.length];
+    for (int i = 0; i < array.length; i++) {
+      final Object value = array[i];
+      if (value == null
+          || value instanceof String
+          || value instanceof Long
+          || value instanceof Integer
+          || value instanceof Short
+          || value instanceof Byte
+          || value instanceof Double
+          || value instanceof Float
+          || value instanceof Boolean
+          || value instanceof byte[]) {
+        result[i] = value;
+      } else {
+        result[i] = value.toString();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Content providers have no separate limit argument, so it's appended to the sort order. SQLite
+   * needs an ORDER BY term before the LIMIT, NULL keeps the natural order.
+   */
+  @Nullable
+  static String providerSortOrder(@Nullable String sortOrder, int limit, int offset) {
+    if (limit <= 0 && offset <= 0) return sortOrder;
+    final StringBuilder sb = new StringBuilder();
+    sb.append(sortOrder != null && !sortOrder.isEmpty() ? sortOrder : "NULL");
+    sb.append(" LIMIT ").append(limit > 0 ? limit : -1);
+    if (offset > 0) sb.append(" OFFSET ").append(offset);
+    return sb.toString();
+  }
+
+  @NonNull
+  static Object[] append(@Nullable Object[] array, @Nullable Object value) {
+    if (array == null) return new Object[] {value};
+    final Object[] result = Arrays.copyOf(array, array.length + 1);
+    result[array.length] = value;
+    return result;
+  }
+
   static boolean classExtendsLazyLoader(Class<?> cls) {
     if (cls.equals(LazyLoaderList.class)) return true;
     while (cls.getSuperclass() != null) cls = cls.getSuperclass();
@@ -149,6 +261,23 @@ class Utils {
     }
   }
 
+  /** Returns the type of the value held by a LazyBlob field or getter method. */
+  @NonNull
+  static Class<?> getLazyBlobType(@NonNull FieldDelegate proxy) {
+    final Type genericType = proxy.getGenericType();
+    if (!(genericType instanceof ParameterizedType)) {
+      throw new IllegalStateException(
+          "LazyBlob field/method " + proxy.originalName() + " must specify a type argument.");
+    }
+    Type type = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+    if (type instanceof ParameterizedType) type = ((ParameterizedType) type).getRawType();
+    if (!(type instanceof Class)) {
+      throw new IllegalStateException(
+          "LazyBlob field/method " + proxy.originalName() + " must use a concrete type argument.");
+    }
+    return (Class<?>) type;
+  }
+
   static void wrapInReIfNecessary(Throwable t) throws RuntimeException {
     if (t instanceof RuntimeException) {
       throw (RuntimeException) t;
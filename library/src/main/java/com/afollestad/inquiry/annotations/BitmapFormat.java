@@ -0,0 +1,26 @@
+package com.afollestad.inquiry.annotations;
+
+import android.graphics.Bitmap;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures how a Bitmap column is compressed when it's stored, and optionally down-sampled when
+ * it's loaded. Bitmap columns without it are stored as lossless PNGs.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface BitmapFormat {
+
+  Bitmap.CompressFormat format() default Bitmap.CompressFormat.PNG;
+
+  /** 0-100, ignored by PNG. */
+  int quality() default 100;
+
+  /** A power of 2 greater than 1 loads Bitmaps at a fraction of their width and height. */
+  int inSampleSize() default 1;
+}
@@ -0,0 +1,93 @@
+package com.afollestad.inquiry.lazyloading;
+
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.afollestad.inquiry.Inquiry;
+
+/**
+ * A column value which is only fetched and decoded when {@link #get()} is first called, using a
+ * single-column query for the row it belongs to. Use it for large BLOB columns, such as Bitmaps or
+ * serialized objects, which aren't needed every time their rows are loaded.
+ *
+ * <p>Rows with LazyBlob columns must have an _id column. When a row is updated, a LazyBlob which
+ * was never loaded or set leaves its column untouched, and one which was set to null clears it.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+public class LazyBlob<T> {
+
+  protected Inquiry inquiry;
+  @Nullable protected String tableName;
+  @Nullable protected Uri contentUri;
+  protected String columnName;
+  protected long rowId;
+
+  private T value;
+  private boolean mDidLazyLoad;
+  private boolean mDirty;
+
+  public LazyBlob() {
+    this(null);
+  }
+
+  public LazyBlob(@Nullable T value) {
+    this.value = value;
+    this.mDidLazyLoad = true;
+  }
+
+  protected LazyBlob(
+      @NonNull Inquiry inquiry,
+      @Nullable String tableName,
+      @Nullable Uri contentUri,
+      @NonNull String columnName,
+      long rowId) {
+    this.inquiry = inquiry;
+    this.tableName = tableName;
+    this.contentUri = contentUri;
+    this.columnName = columnName;
+    this.rowId = rowId;
+  }
+
+  private void lazyLoadIfNecessary() {
+    if (mDidLazyLoad || inquiry == null) return;
+    if (inquiry.isDestroyed())
+      throw new IllegalStateException(
+          "This LazyBlob is not attached to a non-destroyed Inquiry instance.");
+    value = _performLazyLoad();
+    mDidLazyLoad = true;
+  }
+
+  public synchronized boolean didLazyLoad() {
+    return mDidLazyLoad;
+  }
+
+  @Nullable
+  protected T _performLazyLoad() {
+    // To be overridden
+    return null;
+  }
+
+  @Nullable
+  public synchronized T get() {
+    lazyLoadIfNecessary();
+    return value;
+  }
+
+  public synchronized void set(@Nullable T value) {
+    this.value = value;
+    this.mDidLazyLoad = true;
+    this.mDirty = true;
+  }
+
+  /** Whether {@link #set(Object)} was called, so the value must be written even if it's null. */
+  public synchronized boolean isDirty() {
+    return mDirty;
+  }
+
+  @Override
+  public String toString() {
+    if (inquiry == null) return "LazyBlob - " + value;
+    return "LazyBlob - " + columnName + " of row " + rowId + (didLazyLoad() ? " - loaded" : "");
+  }
+}
@@ -0,0 +1,62 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class AggregateResultTests extends BaseTest {
+
+  @Test
+  public void test_reads_groups() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnNames()).thenReturn(new String[] {"rank", "total", "AVG(age)"});
+    when(mockCursor.moveToNext()).thenReturn(true, true, false);
+    when(mockCursor.getType(0)).thenReturn(Cursor.FIELD_TYPE_STRING);
+    when(mockCursor.getType(1)).thenReturn(Cursor.FIELD_TYPE_INTEGER);
+    when(mockCursor.getType(2)).thenReturn(Cursor.FIELD_TYPE_FLOAT, Cursor.FIELD_TYPE_NULL);
+    when(mockCursor.getString(0)).thenReturn("admin", "member");
+    when(mockCursor.getLong(1)).thenReturn(2L, 40L);
+    when(mockCursor.getDouble(2)).thenReturn(24.5);
+
+    AggregateResult result =
+        new AggregateResult(new String[] {"rank", "COUNT(*) AS total", "AVG(age)"}, mockCursor);
+    verify(mockCursor, times(1)).close();
+
+    assertEquals(result.size(), 2);
+    assertEquals(result.getString(0, "rank"), "admin");
+    assertEquals(result.getLong(0, "TOTAL"), 2);
+    assertEquals(result.getDouble(0, "avg(age)"), 24.5);
+    assertFalse(result.isNull(0, 2));
+
+    assertEquals(result.getString(1, 0), "member");
+    assertEquals(result.getDouble(1, 1), 40.0);
+    assertEquals(result.getString(1, 1), "40");
+    assertTrue(result.isNull(1, "AVG(age)"));
+    assertEquals(result.getLong(1, 2), 0);
+    assertNull(result.getString(1, 2));
+  }
+
+  @Test
+  public void test_null_cursor_is_empty() {
+    AggregateResult result = new AggregateResult(new String[] {"SUM(age)"}, null);
+    assertEquals(result.size(), 0);
+    assertEquals(result.column("sum(age)"), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_unknown_column() {
+    new AggregateResult(new String[] {"SUM(age)"}, null).column("age");
+  }
+}
@@ -0,0 +1,76 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/** @author Aidan Follestad (afollestad) */
+public class AtPositionsTests {
+
+  @Test
+  public void test_close_positions_share_a_range() {
+    List<int[]> ranges = Query.positionRanges(new int[] {40, 3, 0, 200, 35}, 0);
+    assertEquals(ranges.size(), 2);
+    // 0, 3, 35 and 40 are each within 32 of the previous one
+    assertTrue(Arrays.equals(ranges.get(0), new int[] {0, 41}));
+    assertTrue(Arrays.equals(ranges.get(1), new int[] {200, 1}));
+  }
+
+  @Test
+  public void test_distant_positions_are_selected_alone() {
+    List<int[]> ranges = Query.positionRanges(new int[] {100, 0, 33}, 0);
+    assertEquals(ranges.size(), 3);
+    assertTrue(Arrays.equals(ranges.get(0), new int[] {0, 1}));
+    assertTrue(Arrays.equals(ranges.get(1), new int[] {33, 1}));
+    assertTrue(Arrays.equals(ranges.get(2), new int[] {100, 1}));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void test_negative_position() {
+    Query.positionRanges(new int[] {2, -1}, 0);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void test_position_past_limit() {
+    Query.positionRanges(new int[] {0, 10}, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_no_positions() {
+    Query.positionRanges(new int[0], 0);
+  }
+
+  @Test
+  public void test_ids_keep_the_given_order() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnIndex("_id")).thenReturn(0);
+    when(mockCursor.moveToNext()).thenReturn(true, true, true, false);
+    when(mockCursor.getPosition()).thenReturn(0, 1, 2);
+    when(mockCursor.getLong(0)).thenReturn(70L, 71L, 90L);
+
+    Map<Integer, Long> ids = new HashMap<>();
+    Query.readPositionIds(mockCursor, 5, ids);
+    verify(mockCursor).close();
+    assertEquals(ids.get(5), Long.valueOf(70));
+    assertEquals(ids.get(7), Long.valueOf(90));
+
+    Object[] args = Query.positionIds(new int[] {7, 5}, ids);
+    assertTrue(Arrays.equals(args, new Object[] {90L, 70L}));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void test_position_past_the_last_row() {
+    Map<Integer, Long> ids = new HashMap<>();
+    ids.put(0, 1L);
+    Query.positionIds(new int[] {0, 1}, ids);
+  }
+}
@@ -33,6 +33,7 @@ class BaseTest {
     when(mockInquiry.getConstructorCache()).thenReturn(constructorCache);
     when(mockInquiry.getBuildMethodCache()).thenReturn(buildMethodCache);
     when(mockInquiry.getWithIdMethodCache()).thenReturn(withIdMethodCache);
+    when(mockInquiry.getTypeAdapters()).thenReturn(TypeAdapterRegistry.DEFAULT);
 
     mockQuery = mock(Query.class);
     when(mockQuery.getInquiryInstance()).thenReturn(mockInquiry);
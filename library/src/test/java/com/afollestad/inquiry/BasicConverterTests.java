@@ -3,8 +3,11 @@ package com.afollestad.inquiry;
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.database.Cursor;
@@ -25,7 +28,13 @@ public class BasicConverterTests extends BaseTest {
 
     Map<Object, FieldDelegate> foreignChildrenMap = new HashMap<>(0);
     List<FieldDelegate> proxiesList = Converter.classFieldDelegates(row.getClass());
-    RowValues values = Converter.classToValues(row, null, proxiesList, foreignChildrenMap);
+    RowValues values =
+        Converter.classToValues(
+            row,
+            null,
+            proxiesList,
+            mockInquiry.getTypeAdapters().resolveAll(proxiesList),
+            foreignChildrenMap);
 
     assertEquals(foreignChildrenMap.size(), 0);
     assertEquals(proxiesList.size(), 5);
@@ -70,4 +79,97 @@ public class BasicConverterTests extends BaseTest {
     assertTrue(row.online);
     assertEquals(row.rank, 99F);
   }
+
+  @Test
+  public void test_row_mapper_is_cached() {
+    RowMapper<BasicRow> mapper = RowMapper.get(mockInquiry, BasicRow.class);
+    assertSame(mapper, RowMapper.get(mockInquiry, BasicRow.class));
+    assertEquals(mapper.foreignKeys.size(), 0);
+    assertNotNull(mapper.getColumnDelegate("username"));
+    assertNull(mapper.getColumnDelegate("unknown"));
+  }
+
+  @Test
+  public void test_cursor_binding_resolves_columns_once() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnCount()).thenReturn(2);
+    when(mockCursor.getType(0)).thenReturn(Cursor.FIELD_TYPE_STRING);
+    when(mockCursor.getType(1)).thenReturn(Cursor.FIELD_TYPE_INTEGER);
+    when(mockCursor.getColumnName(0)).thenReturn("username");
+    when(mockCursor.getColumnName(1)).thenReturn("age");
+
+    CursorBinding<BasicRow> binding =
+        new CursorBinding<>(RowMapper.get(mockInquiry, BasicRow.class), mockCursor);
+
+    when(mockCursor.getString(0)).thenReturn("afollestad");
+    when(mockCursor.getInt(1)).thenReturn(21);
+    BasicRow first = binding.read(mockQuery, mockCursor);
+
+    when(mockCursor.getString(0)).thenReturn("waverlysummer");
+    when(mockCursor.getInt(1)).thenReturn(19);
+    BasicRow second = binding.read(mockQuery, mockCursor);
+
+    assertEquals(first.username, "afollestad");
+    assertEquals(first.age, 21);
+    assertEquals(second.username, "waverlysummer");
+    assertEquals(second.age, 19);
+    verify(mockCursor, times(1)).getColumnName(0);
+    verify(mockCursor, times(1)).getColumnName(1);
+  }
+
+  @Test
+  public void test_primitive_delegate_access() {
+    RowMapper<BasicRow> mapper = RowMapper.get(mockInquiry, BasicRow.class);
+    BasicRow row = new BasicRow();
+
+    //noinspection ConstantConditions
+    mapper.getColumnDelegate("_id").setLong(row, 7L);
+    //noinspection ConstantConditions
+    mapper.getColumnDelegate("age").setInt(row, 30);
+    //noinspection ConstantConditions
+    mapper.getColumnDelegate("online").setBoolean(row, true);
+    //noinspection ConstantConditions
+    mapper.getColumnDelegate("rank").setFloat(row, 2.5f);
+
+    assertEquals(row.id, 7L);
+    assertEquals(row.age, 30);
+    assertTrue(row.online);
+    assertEquals(row.rank, 2.5f);
+    //noinspection ConstantConditions
+    assertEquals(mapper.getColumnDelegate("_id").getLong(row), 7L);
+  }
+
+  @Test
+  public void test_null_cells_load_defaults() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnCount()).thenReturn(2);
+    when(mockCursor.getType(0)).thenReturn(Cursor.FIELD_TYPE_NULL);
+    when(mockCursor.getType(1)).thenReturn(Cursor.FIELD_TYPE_NULL);
+    when(mockCursor.isNull(0)).thenReturn(true);
+    when(mockCursor.isNull(1)).thenReturn(true);
+    when(mockCursor.getColumnName(0)).thenReturn("age");
+    when(mockCursor.getColumnName(1)).thenReturn("online");
+
+    BasicRow row = Converter.cursorToObject(mockQuery, mockCursor, BasicRow.class);
+    assertEquals(row.age, 0);
+    assertEquals(row.online, false);
+  }
+
+  @Test
+  public void test_delegate_metadata() {
+    RowMapper<BasicRow> mapper = RowMapper.get(mockInquiry, BasicRow.class);
+    FieldDelegate id = mapper.getColumnDelegate("_id");
+    FieldDelegate username = mapper.getColumnDelegate("username");
+    FieldDelegate rank = mapper.getColumnDelegate("rank");
+
+    assertNotNull(id);
+    assertNotNull(username);
+    assertNotNull(rank);
+    assertTrue(id.isId());
+    assertEquals(id.originalName(), "id");
+    TypeAdapterRegistry registry = mockInquiry.getTypeAdapters();
+    assertEquals(id.schema(registry.sqlType(id)), "_id INTEGER PRIMARY KEY AUTOINCREMENT");
+    assertEquals(username.schema(registry.sqlType(username)), "username TEXT");
+    assertEquals(rank.schema(registry.sqlType(rank)), "rank REAL");
+  }
 }
@@ -0,0 +1,98 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.graphics.Bitmap;
+import com.afollestad.inquiry.annotations.BitmapFormat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class BitmapAdapterTests extends BaseTest {
+
+  @SuppressWarnings("unused")
+  private static class InvalidFormats {
+
+    @BitmapFormat(quality = 101)
+    Bitmap quality;
+
+    @BitmapFormat(inSampleSize = 0)
+    Bitmap inSampleSize;
+  }
+
+  private static BuiltInTypeAdapters.BitmapAdapter defaultAdapter() {
+    return (BuiltInTypeAdapters.BitmapAdapter) TypeAdapterRegistry.DEFAULT.get(Bitmap.class);
+  }
+
+  private static BitmapFormat format(Class<?> cls, String fieldName) throws Exception {
+    return cls.getDeclaredField(fieldName).getAnnotation(BitmapFormat.class);
+  }
+
+  @Test
+  public void test_defaults_return_same_adapter() {
+    BuiltInTypeAdapters.BitmapAdapter adapter = defaultAdapter();
+    assertSame(adapter.forColumn(null, null), adapter);
+    assertEquals(adapter.format, Bitmap.CompressFormat.PNG);
+    assertEquals(adapter.quality, 100);
+    assertEquals(adapter.inSampleSize, 1);
+    assertNull(adapter.pool);
+  }
+
+  @Test
+  public void test_column_format_keeps_pool() throws Exception {
+    BitmapPool pool = mock(BitmapPool.class);
+    BuiltInTypeAdapters.BitmapAdapter adapter =
+        defaultAdapter().forColumn(format(BitmapRow.class, "thumbnail"), pool);
+    assertEquals(adapter.format, Bitmap.CompressFormat.JPEG);
+    assertEquals(adapter.quality, 80);
+    assertEquals(adapter.inSampleSize, 2);
+    assertSame(adapter.pool, pool);
+  }
+
+  @Test
+  public void test_pool_keeps_default_format() {
+    BitmapPool pool = mock(BitmapPool.class);
+    BuiltInTypeAdapters.BitmapAdapter adapter = defaultAdapter().forColumn(null, pool);
+    assertNotSame(adapter, defaultAdapter());
+    assertEquals(adapter.format, Bitmap.CompressFormat.PNG);
+    assertEquals(adapter.quality, 100);
+    assertSame(adapter.pool, pool);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_quality_is_checked() throws Exception {
+    defaultAdapter().forColumn(format(InvalidFormats.class, "quality"), null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_sample_size_is_checked() throws Exception {
+    defaultAdapter().forColumn(format(InvalidFormats.class, "inSampleSize"), null);
+  }
+
+  @Test
+  public void test_registry_resolves_per_column_adapters() {
+    BitmapPool pool = mock(BitmapPool.class);
+    TypeAdapterRegistry registry = new TypeAdapterRegistry(TypeAdapterRegistry.DEFAULT);
+    registry.bitmapPool = pool;
+    when(mockInquiry.getTypeAdapters()).thenReturn(registry);
+
+    RowMapper<BitmapRow> mapper = RowMapper.get(mockInquiry, BitmapRow.class);
+    BuiltInTypeAdapters.BitmapAdapter image =
+        (BuiltInTypeAdapters.BitmapAdapter) mapper.adapters[mapper.getColumnSlot("image")];
+    BuiltInTypeAdapters.BitmapAdapter thumbnail =
+        (BuiltInTypeAdapters.BitmapAdapter) mapper.adapters[mapper.getColumnSlot("thumbnail")];
+
+    assertEquals(image.format, Bitmap.CompressFormat.PNG);
+    assertSame(image.pool, pool);
+    assertEquals(thumbnail.format, Bitmap.CompressFormat.JPEG);
+    assertEquals(thumbnail.inSampleSize, 2);
+    assertSame(thumbnail.pool, pool);
+  }
+}
@@ -0,0 +1,22 @@
+package com.afollestad.inquiry;
+
+import android.graphics.Bitmap;
+import com.afollestad.inquiry.annotations.BitmapFormat;
+import com.afollestad.inquiry.annotations.Column;
+import com.afollestad.inquiry.annotations.Table;
+
+/** @author Aidan Follestad (afollestad) */
+@Table
+class BitmapRow {
+
+  public BitmapRow() {}
+
+  @Column(autoIncrement = true, name = "_id", primaryKey = true)
+  long id;
+
+  @Column Bitmap image;
+
+  @BitmapFormat(format = Bitmap.CompressFormat.JPEG, quality = 80, inSampleSize = 2)
+  @Column
+  Bitmap thumbnail;
+}
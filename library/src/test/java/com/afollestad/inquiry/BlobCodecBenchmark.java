@@ -0,0 +1,50 @@
+package com.afollestad.inquiry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the size and speed of the compact codec against Java serialization. It only prints
+ * timings, which vary between machines, so it's ignored by the unit tests; remove the
+ * {@code @Ignore} to run it by hand.
+ *
+ * @author Aidan Follestad (afollestad)
+ */
+@Ignore("Benchmark, run by hand")
+public class BlobCodecBenchmark {
+
+  private static final BlobCodec CODEC = CompactBlobCodec.INSTANCE;
+
+  @Test
+  public void benchmark_compact_vs_java_serialization() {
+    List<String> list = BlobCodecTests.sampleList();
+    final int iterations = 2000;
+
+    // Warm up both paths first
+    for (int i = 0; i < iterations; i++) {
+      CODEC.decode(CODEC.encode(list), ArrayList.class);
+      Converter.deserializeObject(Converter.serializeObject(list), ArrayList.class);
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) CODEC.decode(CODEC.encode(list), ArrayList.class);
+    long compactNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int i = 0; i < iterations; i++)
+      Converter.deserializeObject(Converter.serializeObject(list), ArrayList.class);
+    long javaNanos = System.nanoTime() - start;
+
+    System.out.println(
+        String.format(
+            Locale.US,
+            "BlobCodec: compact %d bytes, %d us/op; java %d bytes, %d us/op",
+            CODEC.encode(list).length,
+            compactNanos / iterations / 1000,
+            Converter.serializeObject(list).length,
+            javaNanos / iterations / 1000));
+  }
+}
@@ -0,0 +1,77 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.Test;
+
+/** @author Aidan Follestad (afollestad) */
+public class BlobCodecTests {
+
+  private static final BlobCodec CODEC = CompactBlobCodec.INSTANCE;
+
+  static ArrayList<String> sampleList() {
+    ArrayList<String> list = new ArrayList<>();
+    for (int i = 0; i < 20; i++) list.add("item #" + i);
+    return list;
+  }
+
+  @Test
+  public void test_round_trip() {
+    HashMap<String, Object> map = new HashMap<>();
+    map.put("name", "afollestad");
+    map.put("age", 21);
+    map.put("rank", 99.5d);
+    map.put("id", -5000000000L);
+    map.put("tags", new LinkedHashSet<>(Arrays.asList("a", "b", "\u00fc")));
+    map.put("none", null);
+
+    Object decoded = CODEC.decode(CODEC.encode(map), HashMap.class);
+    assertEquals(map, decoded);
+
+    ArrayList<String> list = sampleList();
+    assertEquals(list, CODEC.decode(CODEC.encode(list), ArrayList.class));
+
+    Date date = new Date(1500000000000L);
+    assertEquals(date, CODEC.decode(CODEC.encode(date), Date.class));
+
+    int[] ints = {0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    assertTrue(Arrays.equals(ints, (int[]) CODEC.decode(CODEC.encode(ints), int[].class)));
+    double[] doubles = {0d, -1.5d, Double.MAX_VALUE};
+    assertTrue(
+        Arrays.equals(doubles, (double[]) CODEC.decode(CODEC.encode(doubles), double[].class)));
+  }
+
+  @Test
+  public void test_unsupported_values_fall_back_to_java_serialization() {
+    ArrayList<Object> list = new ArrayList<>();
+    list.add(Locale.US);
+    byte[] encoded = CODEC.encode(list);
+    assertTrue(CompactBlobCodec.isJavaSerialization(encoded));
+    assertEquals(list, CODEC.decode(encoded, ArrayList.class));
+  }
+
+  @Test
+  public void test_reads_java_serialization() {
+    ArrayList<String> list = sampleList();
+    byte[] legacy = Converter.serializeObject(list);
+    assertEquals(list, CODEC.decode(legacy, ArrayList.class));
+  }
+
+  @Test
+  public void test_smaller_than_java_serialization() {
+    ArrayList<String> list = sampleList();
+    assertTrue(CODEC.encode(list).length < Converter.serializeObject(list).length);
+
+    Map<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < 20; i++) map.put("key" + i, i);
+    assertTrue(CODEC.encode(map).length < Converter.serializeObject(map).length);
+  }
+}
@@ -0,0 +1,50 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+import org.junit.Test;
+
+/** @author Aidan Follestad (afollestad) */
+public class ColumnValuesTests {
+
+  @Test
+  public void test_read_longs() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getCount()).thenReturn(3);
+    when(mockCursor.moveToNext()).thenReturn(true, true, true, false);
+    when(mockCursor.isNull(0)).thenReturn(false, true, false);
+    when(mockCursor.getLong(0)).thenReturn(4L, 9L);
+
+    long[] values = ColumnValues.readLongs(mockCursor);
+    assertEquals(values.length, 3);
+    assertEquals(values[0], 4);
+    assertEquals(values[1], 0);
+    assertEquals(values[2], 9);
+    verify(mockCursor, times(1)).close();
+  }
+
+  @Test
+  public void test_read_grows_past_count() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getCount()).thenReturn(1);
+    when(mockCursor.moveToNext()).thenReturn(true, true, true, false);
+    when(mockCursor.getString(0)).thenReturn("a", null, "c");
+
+    String[] values = ColumnValues.readStrings(mockCursor);
+    assertEquals(values.length, 3);
+    assertEquals(values[0], "a");
+    assertNull(values[1]);
+    assertEquals(values[2], "c");
+  }
+
+  @Test
+  public void test_read_null_cursor() {
+    assertEquals(ColumnValues.readDoubles(null).length, 0);
+  }
+}
@@ -0,0 +1,131 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class ColumnarResultTests extends BaseTest {
+
+  private static final String[] COLUMNS = {"username", "age", "rank"};
+
+  private Cursor mockCursor(final int rows) {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnIndex("username")).thenReturn(0);
+    when(mockCursor.getColumnIndex("age")).thenReturn(1);
+    when(mockCursor.getColumnIndex("rank")).thenReturn(2);
+    final int[] position = {-1};
+    when(mockCursor.moveToNext())
+        .thenAnswer(
+            new Answer<Boolean>() {
+              @Override
+              public Boolean answer(InvocationOnMock invocation) {
+                return ++position[0] < rows;
+              }
+            });
+    when(mockCursor.getString(0))
+        .thenAnswer(
+            new Answer<String>() {
+              @Override
+              public String answer(InvocationOnMock invocation) {
+                return "user" + position[0];
+              }
+            });
+    when(mockCursor.getLong(1))
+        .thenAnswer(
+            new Answer<Long>() {
+              @Override
+              public Long answer(InvocationOnMock invocation) {
+                return (long) position[0];
+              }
+            });
+    when(mockCursor.isNull(2))
+        .thenAnswer(
+            new Answer<Boolean>() {
+              @Override
+              public Boolean answer(InvocationOnMock invocation) {
+                return position[0] % 2 == 1;
+              }
+            });
+    when(mockCursor.getDouble(2)).thenReturn(1.5);
+    return mockCursor;
+  }
+
+  @Test
+  public void test_reads_one_array_per_column() {
+    ColumnarResult<BasicRow> result =
+        new ColumnarResult<>(mockQuery, RowMapper.get(mockInquiry, BasicRow.class), COLUMNS);
+    result.readAll(mockCursor(150));
+
+    assertEquals(result.size(), 150);
+    long[] ages = result.getLongs("age");
+    double[] ranks = result.getDoubles("rank");
+    String[] usernames = result.getStrings("username");
+    assertEquals(ages.length, 150);
+    assertEquals(ages[149], 149L);
+    assertEquals(usernames[100], "user100");
+    assertEquals(ranks[0], 1.5);
+    assertFalse(result.isNull("rank", 0));
+    assertTrue(result.isNull("rank", 1));
+    assertEquals(ranks[1], 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_wrong_column_type() {
+    ColumnarResult<BasicRow> result =
+        new ColumnarResult<>(mockQuery, RowMapper.get(mockInquiry, BasicRow.class), COLUMNS);
+    result.readAll(mockCursor(1));
+    result.getDoubles("age");
+  }
+
+  @Test
+  public void test_rows_are_created_by_index() {
+    ColumnarResult<BasicRow> result =
+        new ColumnarResult<>(mockQuery, RowMapper.get(mockInquiry, BasicRow.class), COLUMNS);
+    result.readAll(mockCursor(3));
+
+    BasicRow row = result.row(2);
+    assertEquals(row.username, "user2");
+    assertEquals(row.age, 2);
+    assertEquals(row.rank, 1.5F);
+    assertEquals(result.row(1).rank, 0F);
+  }
+
+  @Test
+  public void test_short_byte_and_char_columns() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnIndex("level")).thenReturn(0);
+    when(mockCursor.getColumnIndex("flags")).thenReturn(1);
+    when(mockCursor.getColumnIndex("grade")).thenReturn(2);
+    when(mockCursor.moveToNext()).thenReturn(true, true, false);
+    when(mockCursor.getLong(0)).thenReturn(7L, 300L);
+    when(mockCursor.getLong(1)).thenReturn(3L, 4L);
+    when(mockCursor.getString(2)).thenReturn("A", "B");
+
+    ColumnarResult<SmallTypesRow> result =
+        new ColumnarResult<>(
+            mockQuery,
+            RowMapper.get(mockInquiry, SmallTypesRow.class),
+            new String[] {"level", "flags", "grade"});
+    result.readAll(mockCursor);
+
+    assertEquals(result.getLongs("level")[1], 300L);
+    assertEquals(result.getLongs("flags")[0], 3L);
+    assertEquals(result.getStrings("grade")[1], "B");
+
+    SmallTypesRow row = result.row(1);
+    assertEquals(row.level, (short) 300);
+    assertEquals(row.flags, (byte) 4);
+    assertEquals(row.grade, 'B');
+  }
+}
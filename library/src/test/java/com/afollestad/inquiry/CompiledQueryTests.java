@@ -0,0 +1,33 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class CompiledQueryTests extends BaseTest {
+
+  private CompiledQuery<BasicRow> compile(String where, String sort, int limit) {
+    return new CompiledQuery<BasicRow>(
+        mockInquiry,
+        RowMapper.get(mockInquiry, BasicRow.class),
+        "users",
+        null,
+        new String[] {"_id", "username"},
+        where,
+        null,
+        sort,
+        limit);
+  }
+
+  @Test
+  public void test_sql_is_built_once() {
+    assertEquals(
+        compile("age > ? AND online = ?", "username ASC", 10).getSql(),
+        "SELECT _id, username FROM users WHERE age > ? AND online = ? ORDER BY username ASC LIMIT 10");
+    assertEquals(compile(null, null, 0).getSql(), "SELECT _id, username FROM users");
+  }
+}
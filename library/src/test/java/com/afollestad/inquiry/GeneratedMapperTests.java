@@ -0,0 +1,66 @@
+package com.afollestad.inquiry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class GeneratedMapperTests extends BaseTest {
+
+  @Test
+  public void test_generated_mapper_is_found() {
+    RowMapper<MappedRow> mapper = RowMapper.get(mockInquiry, MappedRow.class);
+    assertTrue(mapper.generated instanceof MappedRow_InquiryMapper);
+    assertNull(RowMapper.get(mockInquiry, BasicRow.class).generated);
+  }
+
+  @Test
+  public void test_generated_mapper_reads_rows() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnIndex("_id")).thenReturn(0);
+    when(mockCursor.getColumnIndex("title")).thenReturn(1);
+    when(mockCursor.getColumnIndex("done")).thenReturn(-1);
+    when(mockCursor.getLong(0)).thenReturn(7L);
+    when(mockCursor.getString(1)).thenReturn("Hello");
+
+    CursorBinding<MappedRow> binding =
+        new CursorBinding<>(RowMapper.get(mockInquiry, MappedRow.class), mockCursor);
+    MappedRow row = binding.read(mockQuery, mockCursor);
+    assertEquals(7L, row.id);
+    assertEquals("Hello", row.title);
+
+    // Reflection would bind columns by name and check their types
+    verify(mockCursor, never()).getColumnName(anyInt());
+    verify(mockCursor, never()).getType(anyInt());
+  }
+
+  @Test
+  public void test_generated_mapper_writes_rows() {
+    MappedRow row = new MappedRow();
+    row.title = "Hello";
+    row.done = true;
+
+    RowValues values =
+        RowMapper.get(mockInquiry, MappedRow.class)
+            .toValues(row, null, new HashMap<Object, FieldDelegate>());
+    Map<String, Object> written = new HashMap<>();
+    for (Map.Entry<String, Object> entry : values) written.put(entry.getKey(), entry.getValue());
+    // The unsaved _id is left for SQLite to assign
+    assertEquals(2, written.size());
+    assertEquals("Hello", written.get("title"));
+    assertEquals(1, written.get("done"));
+  }
+}
@@ -0,0 +1,19 @@
+package com.afollestad.inquiry;
+
+import com.afollestad.inquiry.annotations.Column;
+import com.afollestad.inquiry.annotations.Table;
+import com.afollestad.inquiry.lazyloading.LazyBlob;
+import java.util.ArrayList;
+
+/** @author Aidan Follestad (afollestad) */
+@Table
+class LazyBlobRow {
+
+  public LazyBlobRow() {}
+
+  @Column(autoIncrement = true, name = "_id", primaryKey = true)
+  long id;
+
+  @Column String name;
+  @Column LazyBlob<ArrayList<String>> tags;
+}
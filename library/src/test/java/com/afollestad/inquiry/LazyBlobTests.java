@@ -0,0 +1,97 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+import com.afollestad.inquiry.lazyloading.LazyBlob;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class LazyBlobTests extends BaseTest {
+
+  @Test
+  public void test_lazy_blobs_are_not_projected() {
+    String[] projection = Converter.generateProjection(LazyBlobRow.class);
+    assertTrue(Arrays.asList(projection).contains("name"));
+    assertFalse(Arrays.asList(projection).contains("tags"));
+  }
+
+  @Test
+  public void test_lazy_blob_is_deferred() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnCount()).thenReturn(2);
+    when(mockCursor.getType(0)).thenReturn(Cursor.FIELD_TYPE_INTEGER);
+    when(mockCursor.getType(1)).thenReturn(Cursor.FIELD_TYPE_STRING);
+    when(mockCursor.getColumnName(0)).thenReturn("_id");
+    when(mockCursor.getColumnName(1)).thenReturn("name");
+    when(mockCursor.getColumnIndex("_id")).thenReturn(0);
+    when(mockCursor.getColumnIndex("name")).thenReturn(1);
+    when(mockCursor.getColumnIndex("tags")).thenReturn(-1);
+    when(mockCursor.getLong(0)).thenReturn(5L);
+    when(mockCursor.getString(1)).thenReturn("afollestad");
+
+    LazyBlobRow row = Converter.cursorToObject(mockQuery, mockCursor, LazyBlobRow.class);
+    assertEquals(row.id, 5L);
+    assertEquals(row.name, "afollestad");
+    assertNotNull(row.tags);
+    assertFalse(row.tags.didLazyLoad());
+  }
+
+  @Test
+  public void test_unloaded_lazy_blob_is_not_written() {
+    RowMapper<LazyBlobRow> mapper = RowMapper.get(mockInquiry, LazyBlobRow.class);
+    LazyBlobRow row = new LazyBlobRow();
+    row.name = "afollestad";
+    row.tags =
+        new LazyBlob<ArrayList<String>>() {
+          @Override
+          public synchronized boolean didLazyLoad() {
+            return false;
+          }
+        };
+
+    RowValues values = mapper.toValues(row, null, new HashMap<Object, FieldDelegate>());
+    assertEquals(values.getString("name"), "afollestad");
+    assertNull(values.getByteArray("tags"));
+
+    row.tags = new LazyBlob<>(new ArrayList<>(Arrays.asList("a", "b")));
+    values = mapper.toValues(row, null, new HashMap<Object, FieldDelegate>());
+    byte[] blob = values.getByteArray("tags");
+    assertNotNull(blob);
+    assertEquals(CompactBlobCodec.INSTANCE.decode(blob, ArrayList.class), row.tags.get());
+  }
+
+  @Test
+  public void test_lazy_blob_set_to_null_is_cleared() {
+    RowMapper<LazyBlobRow> mapper = RowMapper.get(mockInquiry, LazyBlobRow.class);
+    LazyBlobRow row = new LazyBlobRow();
+    row.tags = new LazyBlob<>();
+    RowValues values = mapper.toValues(row, null, new HashMap<Object, FieldDelegate>());
+    assertFalse(containsKey(values, "tags"));
+
+    row.tags.set(null);
+    values = mapper.toValues(row, null, new HashMap<Object, FieldDelegate>());
+    assertTrue(containsKey(values, "tags"));
+    assertNull(values.getByteArray("tags"));
+  }
+
+  private static boolean containsKey(RowValues values, String key) {
+    for (Map.Entry<String, Object> entry : values) {
+      if (entry.getKey().equals(key)) return true;
+    }
+    return false;
+  }
+}
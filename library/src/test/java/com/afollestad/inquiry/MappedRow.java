@@ -0,0 +1,17 @@
+package com.afollestad.inquiry;
+
+import com.afollestad.inquiry.annotations.Column;
+import com.afollestad.inquiry.annotations.Table;
+
+/** @author Aidan Follestad (afollestad) */
+@Table
+class MappedRow {
+
+  public MappedRow() {}
+
+  @Column(autoIncrement = true, name = "_id", primaryKey = true)
+  long id;
+
+  @Column String title;
+  @Column boolean done;
+}
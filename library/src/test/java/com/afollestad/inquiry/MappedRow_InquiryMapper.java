@@ -0,0 +1,39 @@
+package com.afollestad.inquiry;
+
+import android.database.Cursor;
+
+/**
+ * The output of inquiry-compiler for MappedRow, checked in since the unit tests don't run the
+ * annotation processor.
+ */
+public final class MappedRow_InquiryMapper implements InquiryMapper<MappedRow> {
+  private static final String[] COLUMNS = {"_id", "title", "done"};
+
+  @Override
+  public String[] columns() {
+    return COLUMNS.clone();
+  }
+
+  @Override
+  public MappedRow read(Cursor cursor, int[] columnIndexes) {
+    MappedRow row = new MappedRow();
+    int index;
+    index = columnIndexes[0];
+    if (index != -1) row.id = cursor.isNull(index) ? 0L : cursor.getLong(index);
+    index = columnIndexes[1];
+    if (index != -1) row.title = cursor.getString(index);
+    index = columnIndexes[2];
+    if (index != -1) row.done = !cursor.isNull(index) && cursor.getInt(index) == 1;
+    return row;
+  }
+
+  @Override
+  public void write(MappedRow row, RowValues values) {
+    long value0 = row.id;
+    if (value0 > 0) values.put("_id", value0);
+    String value1 = row.title;
+    if (value1 != null) values.put("title", value1);
+    boolean value2 = row.done;
+    values.put("done", value2 ? 1 : 0);
+  }
+}
@@ -0,0 +1,38 @@
+package com.afollestad.inquiry;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.net.Uri;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class PagerTests extends BaseTest {
+
+  private Query<BasicRow, Integer> newQuery() {
+    Uri mockUri = mock(Uri.class);
+    when(mockUri.getScheme()).thenReturn("content");
+    return new Query<>(mockInquiry, mockUri, Query.SELECT, BasicRow.class);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void test_pages_cant_be_sorted() {
+    //noinspection CheckResult
+    newQuery().sortByAsc("age").pager(10);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void test_key_must_be_selected() {
+    //noinspection CheckResult
+    newQuery().projection("username", "age").pager(10);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void test_page_after_cant_be_sorted() {
+    //noinspection CheckResult
+    newQuery().sortByDesc("age").pageAfter("_id", 20L, 10);
+  }
+}
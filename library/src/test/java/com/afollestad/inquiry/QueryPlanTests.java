@@ -0,0 +1,71 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+/** @author Aidan Follestad (afollestad) */
+public class QueryPlanTests {
+
+  private static QueryPlan plan(String where, String... details) {
+    return new QueryPlan("SELECT * FROM users", "users", where, Arrays.asList(details));
+  }
+
+  @Test
+  public void test_full_scan() {
+    assertTrue(plan("age > ?", "SCAN TABLE users").hasFullScan());
+    assertTrue(plan("age > ?", "SCAN users").hasFullScan());
+    assertFalse(plan("age > ?", "SCAN users").hasTempSort());
+  }
+
+  @Test
+  public void test_index_is_not_full_scan() {
+    assertFalse(plan("age > ?", "SEARCH users USING INDEX users_age (age>?)").hasFullScan());
+    assertFalse(plan("age > ?", "SCAN users USING INDEX users_age").hasFullScan());
+    assertFalse(plan("age > ?", "SCAN CONSTANT ROW").hasFullScan());
+  }
+
+  @Test
+  public void test_scan_without_where_is_expected() {
+    assertFalse(plan(null, "SCAN users").hasFullScan());
+    assertFalse(plan(null, "SCAN users").hasWarning());
+  }
+
+  @Test
+  public void test_temp_sort() {
+    QueryPlan plan =
+        plan(
+            "_id = ?",
+            "SEARCH users USING INTEGER PRIMARY KEY (rowid=?)",
+            "USE TEMP B-TREE FOR ORDER BY");
+    assertTrue(plan.hasTempSort());
+    assertFalse(plan.hasFullScan());
+    assertTrue(plan.hasWarning());
+  }
+
+  @Test
+  public void test_empty_plan() {
+    assertFalse(
+        new QueryPlan("SELECT 1", null, null, Collections.<String>emptyList()).hasWarning());
+  }
+
+  @Test
+  public void test_inlined_in_lists_share_a_shape() {
+    String first = "SELECT * FROM users WHERE _id IN (1, 2, 3) AND username IN ('a)', 'b''')";
+    String second = "SELECT * FROM users WHERE _id IN (4, 5) AND username IN ('c')";
+    assertEquals(QueryPlanInspector.shapeOf(first), QueryPlanInspector.shapeOf(second));
+    assertEquals(
+        QueryPlanInspector.shapeOf(second),
+        "SELECT * FROM users WHERE _id IN (...) AND username IN (...)");
+  }
+
+  @Test
+  public void test_subqueries_keep_their_shape() {
+    String sql = "SELECT * FROM users WHERE _id IN (SELECT user FROM bans)";
+    assertEquals(QueryPlanInspector.shapeOf(sql), sql);
+  }
+}
@@ -0,0 +1,92 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.database.Cursor;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class QueryTests extends BaseTest {
+
+  private SQLiteHelper mockDatabase;
+
+  @Before
+  public void setupDatabase() {
+    mockDatabase = mock(SQLiteHelper.class);
+    mockInquiry.context = mock(Context.class);
+    when(mockInquiry._getDatabase()).thenReturn(mockDatabase);
+  }
+
+  private Query<BasicRow, Integer> query() {
+    return new Query<>(mockInquiry, "users", null, BasicRow.class);
+  }
+
+  private Cursor mockValueCursor(long value) {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.moveToFirst()).thenReturn(true);
+    when(mockCursor.getLong(0)).thenReturn(value);
+    return mockCursor;
+  }
+
+  @Test
+  public void test_count_selects_count() {
+    Cursor mockCursor = mockValueCursor(50);
+    when(mockDatabase.rawQuery(anyString(), any(Object[].class), anyString(), anyString()))
+        .thenReturn(mockCursor);
+
+    assertEquals(query().where("age > ?", 18).count(), 50);
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+    verify(mockDatabase).rawQuery(sql.capture(), args.capture(), eq("users"), eq("age > ?"));
+    assertEquals(sql.getValue(), "SELECT COUNT(*) FROM users WHERE age > ?");
+    assertEquals(Arrays.asList(args.getValue()), Arrays.<Object>asList(18));
+    verify(mockCursor).close();
+  }
+
+  @Test
+  public void test_count_is_capped_at_limit() {
+    Cursor mockCursor = mockValueCursor(50);
+    when(mockDatabase.rawQuery(anyString(), any(Object[].class), anyString(), anyString()))
+        .thenReturn(mockCursor);
+    assertEquals(query().where("age > ?", 18).limit(10).count(), 10);
+  }
+
+  @Test
+  public void test_exists_selects_one_row() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.moveToFirst()).thenReturn(true);
+    when(mockDatabase.rawQuery(anyString(), any(Object[].class), anyString(), anyString()))
+        .thenReturn(mockCursor);
+
+    assertTrue(query().where("age > ?", 18).exists());
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    verify(mockDatabase).rawQuery(sql.capture(), any(Object[].class), eq("users"), eq("age > ?"));
+    assertEquals(sql.getValue(), "SELECT 1 FROM users WHERE age > ? LIMIT 1");
+    verify(mockCursor).close();
+  }
+
+  @Test
+  public void test_exists_without_rows() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.moveToFirst()).thenReturn(false);
+    when(mockDatabase.rawQuery(anyString(), any(Object[].class), anyString(), anyString()))
+        .thenReturn(mockCursor);
+    assertFalse(query().where("age > ?", 18).exists());
+    assertTrue(query().where("age > ?", 18).none());
+  }
+}
@@ -0,0 +1,215 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.database.Cursor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class RowIteratorTests extends BaseTest {
+
+  private Cursor mockTwoRowCursor() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnCount()).thenReturn(2);
+    when(mockCursor.getType(0)).thenReturn(Cursor.FIELD_TYPE_STRING);
+    when(mockCursor.getType(1)).thenReturn(Cursor.FIELD_TYPE_INTEGER);
+    when(mockCursor.getColumnName(0)).thenReturn("username");
+    when(mockCursor.getColumnName(1)).thenReturn("age");
+    when(mockCursor.moveToNext()).thenReturn(true, true, false);
+    when(mockCursor.getString(0)).thenReturn("afollestad", "waverlysummer");
+    when(mockCursor.getInt(1)).thenReturn(21, 19);
+    return mockCursor;
+  }
+
+  @Test
+  public void test_iterates_rows_on_demand() {
+    Cursor mockCursor = mockTwoRowCursor();
+    RowIterator<BasicRow> iterator =
+        new RowIterator<>(mockQuery, RowMapper.get(mockInquiry, BasicRow.class), mockCursor);
+
+    assertTrue(iterator.hasNext());
+    BasicRow first = iterator.next();
+    assertEquals(first.username, "afollestad");
+    assertEquals(first.age, 21);
+    verify(mockCursor, never()).getCount();
+    verify(mockCursor, never()).close();
+
+    assertTrue(iterator.hasNext());
+    BasicRow second = iterator.next();
+    assertEquals(second.username, "waverlysummer");
+    assertEquals(second.age, 19);
+
+    assertFalse(iterator.hasNext());
+    verify(mockCursor, times(1)).close();
+  }
+
+  @Test
+  public void test_close_stops_iteration() {
+    Cursor mockCursor = mockTwoRowCursor();
+    RowIterator<BasicRow> iterator =
+        new RowIterator<>(mockQuery, RowMapper.get(mockInquiry, BasicRow.class), mockCursor);
+
+    iterator.next();
+    iterator.close();
+    iterator.close();
+    assertFalse(iterator.hasNext());
+    verify(mockCursor, times(1)).close();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void test_null_cursor_is_empty() {
+    RowIterator<BasicRow> iterator =
+        new RowIterator<>(mockQuery, RowMapper.get(mockInquiry, BasicRow.class), null);
+    assertFalse(iterator.hasNext());
+    iterator.next();
+  }
+
+  /** Serves rows with _ids from 1 to total, in pages, and records the pages asked for. */
+  private static final class FakePages implements RowIterator.PageSource {
+
+    final List<String> opened = new ArrayList<>();
+    private final int total;
+
+    FakePages(int total) {
+      this.total = total;
+    }
+
+    @Override
+    public Cursor open(long afterId, int count) {
+      opened.add(afterId + ":" + count);
+      final long first = afterId < 0 ? 1 : afterId + 1;
+      final long last = Math.min(total, first + count - 1);
+      final int[] position = {-1};
+      final int rows = (int) Math.max(0, last - first + 1);
+      Cursor mockCursor = mock(Cursor.class);
+      when(mockCursor.getColumnIndex("_id")).thenReturn(0);
+      when(mockCursor.getColumnCount()).thenReturn(1);
+      when(mockCursor.getColumnName(0)).thenReturn("_id");
+      when(mockCursor.getType(0)).thenReturn(Cursor.FIELD_TYPE_INTEGER);
+      when(mockCursor.moveToNext())
+          .thenAnswer(
+              new Answer<Boolean>() {
+                @Override
+                public Boolean answer(InvocationOnMock invocation) {
+                  return ++position[0] < rows;
+                }
+              });
+      when(mockCursor.getLong(0))
+          .thenAnswer(
+              new Answer<Long>() {
+                @Override
+                public Long answer(InvocationOnMock invocation) {
+                  return first + position[0];
+                }
+              });
+      return mockCursor;
+    }
+  }
+
+  @Test
+  public void test_pages_continue_after_last_id() {
+    FakePages pages = new FakePages(40);
+    RowIterator<BasicRow> iterator =
+        new RowIterator<>(mockQuery, RowMapper.get(mockInquiry, BasicRow.class), pages, 0);
+    assertEquals(pages.opened, Arrays.asList("-9223372036854775808:16"));
+
+    long expected = 1;
+    for (BasicRow row : iterator) assertEquals(row.id, expected++);
+    assertEquals(expected, 41);
+    assertEquals(pages.opened, Arrays.asList("-9223372036854775808:16", "16:32"));
+  }
+
+  @Test
+  public void test_pages_respect_limit() {
+    FakePages pages = new FakePages(100);
+    RowIterator<BasicRow> iterator =
+        new RowIterator<>(mockQuery, RowMapper.get(mockInquiry, BasicRow.class), pages, 20);
+    int count = 0;
+    while (iterator.hasNext()) {
+      iterator.next();
+      count++;
+    }
+    assertEquals(count, 20);
+    assertEquals(pages.opened, Arrays.asList("-9223372036854775808:16", "16:4"));
+  }
+
+  @Test
+  public void test_pages_need_integer_primary_key() {
+    assertTrue(RowIterator.canPage(RowMapper.get(mockInquiry, BasicRow.class)));
+    assertFalse(RowIterator.canPage(RowMapper.get(mockInquiry, TextIdRow.class)));
+  }
+
+  @Test
+  public void test_single_cursor_keeps_shared_and_null_ids() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnCount()).thenReturn(2);
+    when(mockCursor.getType(0)).thenReturn(Cursor.FIELD_TYPE_STRING);
+    when(mockCursor.getType(1)).thenReturn(Cursor.FIELD_TYPE_STRING);
+    when(mockCursor.getColumnName(0)).thenReturn("_id");
+    when(mockCursor.getColumnName(1)).thenReturn("name");
+    when(mockCursor.moveToNext()).thenReturn(true, true, true, false);
+    when(mockCursor.getString(0)).thenReturn("a", "a", null);
+    when(mockCursor.getString(1)).thenReturn("first", "second", "third");
+
+    // TextIdRow can't be paged by _id, so its rows are read from one Cursor
+    RowIterator<TextIdRow> iterator =
+        new RowIterator<>(mockQuery, RowMapper.get(mockInquiry, TextIdRow.class), mockCursor);
+    List<String> names = new ArrayList<>();
+    for (TextIdRow row : iterator) names.add(row.name);
+    assertEquals(names, Arrays.asList("first", "second", "third"));
+    verify(mockCursor, never()).getLong(0);
+  }
+
+  @Test
+  public void test_first_matching_stops_early() {
+    final FakePages pages = new FakePages(1000);
+    SQLiteHelper mockDatabase = mock(SQLiteHelper.class);
+    mockInquiry.context = mock(Context.class);
+    when(mockInquiry._getDatabase()).thenReturn(mockDatabase);
+    when(mockDatabase.rawQuery(anyString(), any(Object[].class), anyString(), anyString()))
+        .thenAnswer(
+            new Answer<Cursor>() {
+              @Override
+              public Cursor answer(InvocationOnMock invocation) {
+                // Pages bind the last _id and the page size after the where args
+                Object[] args = (Object[]) invocation.getArguments()[1];
+                return pages.open((Long) args[args.length - 2], (Integer) args[args.length - 1]);
+              }
+            });
+
+    final List<Long> tested = new ArrayList<>();
+    Query<BasicRow, Integer> query = new Query<>(mockInquiry, "users", null, BasicRow.class);
+    BasicRow match =
+        query.firstMatching(
+            new AnyPredicate<BasicRow>() {
+              @Override
+              public boolean match(BasicRow row) {
+                tested.add(row.id);
+                return row.id == 3;
+              }
+            });
+
+    assertEquals(match.id, 3);
+    assertEquals(tested, Arrays.asList(1L, 2L, 3L));
+    assertEquals(pages.opened, Arrays.asList("-9223372036854775808:16"));
+  }
+}
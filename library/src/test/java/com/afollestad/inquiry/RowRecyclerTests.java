@@ -0,0 +1,75 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class RowRecyclerTests extends BaseTest {
+
+  private Cursor mockCursor(String... columns) {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnCount()).thenReturn(columns.length);
+    for (int i = 0; i < columns.length; i++) {
+      when(mockCursor.getColumnName(i)).thenReturn(columns[i]);
+      when(mockCursor.getColumnIndex(columns[i])).thenReturn(i);
+      when(mockCursor.getType(i)).thenReturn(Cursor.FIELD_TYPE_NULL);
+    }
+    return mockCursor;
+  }
+
+  @Test
+  public void test_rows_are_reused_when_all_columns_are_selected() {
+    Cursor mockCursor = mockCursor("_id", "username", "age", "online", "rank");
+    when(mockCursor.getLong(0)).thenReturn(7L);
+    when(mockCursor.getString(1)).thenReturn("afollestad");
+    when(mockCursor.getInt(2)).thenReturn(21);
+
+    CursorBinding<BasicRow> binding =
+        new CursorBinding<>(RowMapper.get(mockInquiry, BasicRow.class), mockCursor);
+    assertTrue(binding.reusesRows);
+
+    BasicRow old = new BasicRow("waverlysummer", 19, true, 5F);
+    BasicRow row = binding.read(mockQuery, mockCursor, old);
+    assertSame(row, old);
+    assertEquals(row.id, 7L);
+    assertEquals(row.username, "afollestad");
+    assertEquals(row.age, 21);
+    assertFalse(row.online);
+    assertEquals(row.rank, 0F);
+  }
+
+  @Test
+  public void test_rows_are_not_reused_for_partial_projections() {
+    Cursor mockCursor = mockCursor("username", "age");
+    CursorBinding<BasicRow> binding =
+        new CursorBinding<>(RowMapper.get(mockInquiry, BasicRow.class), mockCursor);
+    assertFalse(binding.reusesRows);
+
+    BasicRow old = new BasicRow("waverlysummer", 19, true, 5F);
+    assertNotSame(binding.read(mockQuery, mockCursor, old), old);
+  }
+
+  @Test
+  public void test_recycler_is_bounded() {
+    RowRecycler<BasicRow> recycler = new RowRecycler<>(2);
+    BasicRow first = new BasicRow();
+    recycler.recycleAll(Arrays.asList(first, null, new BasicRow(), new BasicRow()));
+    assertEquals(recycler.size(), 2);
+    recycler.obtain();
+    assertSame(recycler.obtain(), first);
+    assertNull(recycler.obtain());
+  }
+}
@@ -0,0 +1,50 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class RowViewTests extends BaseTest {
+
+  @Test
+  public void test_columns_resolve_once() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnCount()).thenReturn(2);
+    when(mockCursor.getColumnIndex("username")).thenReturn(0);
+    when(mockCursor.getColumnIndex("age")).thenReturn(1);
+    when(mockCursor.getInt(1)).thenReturn(21, 19);
+
+    RowView view = new RowView(RowMapper.get(mockInquiry, BasicRow.class), mockCursor);
+    int total = 0;
+    for (int i = 0; i < 2; i++) total += view.getInt(view.column("age"));
+
+    assertEquals(total, 40);
+    assertEquals(view.column("username"), 0);
+    verify(mockCursor, times(1)).getColumnIndex("age");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_unknown_column() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnIndex("password")).thenReturn(2);
+    RowView view = new RowView(RowMapper.get(mockInquiry, BasicRow.class), mockCursor);
+    view.column("password");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_unselected_column() {
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnIndex("age")).thenReturn(-1);
+    RowView view = new RowView(RowMapper.get(mockInquiry, BasicRow.class), mockCursor);
+    view.column("age");
+  }
+}
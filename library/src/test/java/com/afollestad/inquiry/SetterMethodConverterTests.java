@@ -25,7 +25,13 @@ public class SetterMethodConverterTests extends BaseTest {
 
     Map<Object, FieldDelegate> foreignChildrenMap = new HashMap<>(0);
     List<FieldDelegate> proxiesList = Converter.classFieldDelegates(row.getClass());
-    RowValues values = Converter.classToValues(row, null, proxiesList, foreignChildrenMap);
+    RowValues values =
+        Converter.classToValues(
+            row,
+            null,
+            proxiesList,
+            mockInquiry.getTypeAdapters().resolveAll(proxiesList),
+            foreignChildrenMap);
 
     assertEquals(foreignChildrenMap.size(), 0);
     assertEquals(proxiesList.size(), 5);
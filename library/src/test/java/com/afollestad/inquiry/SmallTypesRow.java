@@ -0,0 +1,15 @@
+package com.afollestad.inquiry;
+
+import com.afollestad.inquiry.annotations.Column;
+import com.afollestad.inquiry.annotations.Table;
+
+/** @author Aidan Follestad (afollestad) */
+@Table
+class SmallTypesRow {
+
+  public SmallTypesRow() {}
+
+  @Column short level;
+  @Column byte flags;
+  @Column char grade;
+}
@@ -0,0 +1,147 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import android.database.sqlite.SQLiteProgram;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Test;
+
+/** @author Aidan Follestad (afollestad) */
+public class StatementSqlTests {
+
+  @Test
+  public void test_insert_binds_every_value() {
+    RowValues values = new RowValues();
+    values.put("username", "afollestad");
+    List<Object> args = new ArrayList<>();
+    assertEquals(
+        SQLiteHelper.insertSql("users", values, args), "INSERT INTO users (username) VALUES (?)");
+    assertEquals(args, Arrays.<Object>asList("afollestad"));
+
+    args.clear();
+    assertEquals(
+        SQLiteHelper.insertSql("users", new RowValues(), args), "INSERT INTO users DEFAULT VALUES");
+    assertEquals(args.size(), 0);
+  }
+
+  @Test
+  public void test_same_shape_same_sql() {
+    RowValues first = new RowValues();
+    first.put("age", 21);
+    RowValues second = new RowValues();
+    second.put("age", 19);
+    List<Object> firstArgs = new ArrayList<>();
+    List<Object> secondArgs = new ArrayList<>();
+
+    String firstSql =
+        SQLiteHelper.updateSql("users", first, "_id = ?", new String[] {"1"}, firstArgs);
+    String secondSql =
+        SQLiteHelper.updateSql("users", second, "_id = ?", new String[] {"2"}, secondArgs);
+    assertEquals(firstSql, "UPDATE users SET age = ? WHERE _id = ?");
+    assertEquals(firstSql, secondSql);
+    assertEquals(firstArgs, Arrays.<Object>asList(21, "1"));
+    assertEquals(secondArgs, Arrays.<Object>asList(19, "2"));
+  }
+
+  @Test
+  public void test_delete() {
+    List<Object> args = new ArrayList<>();
+    assertEquals(
+        SQLiteHelper.deleteSql("users", "age > ?", new String[] {"20"}, args),
+        "DELETE FROM users WHERE age > ?");
+    assertEquals(args, Arrays.<Object>asList("20"));
+  }
+
+  @Test
+  public void test_select() {
+    assertEquals(
+        SQLiteHelper.selectSql("users", null, "age > ?", null, 1),
+        "SELECT * FROM users WHERE age > ? LIMIT 1");
+  }
+
+  @Test
+  public void test_select_distinct() {
+    assertEquals(
+        SQLiteHelper.selectSql(
+            "users", true, new String[] {"rank"}, "age > ?", null, null, null, 0),
+        "SELECT DISTINCT rank FROM users WHERE age > ?");
+  }
+
+  @Test
+  public void test_select_grouped() {
+    assertEquals(
+        SQLiteHelper.selectSql(
+            "users",
+            new String[] {"rank", "COUNT(*)"},
+            "online = ?",
+            "rank",
+            "COUNT(*) > ?",
+            "rank ASC",
+            0),
+        "SELECT rank, COUNT(*) FROM users WHERE online = ? GROUP BY rank HAVING COUNT(*) > ? "
+            + "ORDER BY rank ASC");
+  }
+
+  @Test
+  public void test_where_args_keep_their_types() {
+    UUID uuid = UUID.randomUUID();
+    byte[] blob = new byte[] {1, 2};
+    Object[] args = Utils.bindableArray(new Object[] {21, 1.5, true, null, blob, uuid});
+    assertEquals(args[0], 21);
+    assertEquals(args[1], 1.5);
+    assertEquals(args[2], true);
+    assertNull(args[3]);
+    assertSame(args[4], blob);
+    assertEquals(args[5], uuid.toString());
+
+    SQLiteProgram program = mock(SQLiteProgram.class);
+    for (int i = 0; i < args.length; i++) StatementCache.bind(program, i + 1, args[i]);
+    verify(program).bindLong(1, 21);
+    verify(program).bindDouble(2, 1.5);
+    verify(program).bindLong(3, 1);
+    verify(program).bindNull(4);
+    verify(program).bindBlob(5, blob);
+    verify(program).bindString(6, uuid.toString());
+  }
+
+  @Test
+  public void test_short_in_lists_use_placeholders() {
+    List<Object> unbound = new ArrayList<>();
+    assertEquals(Utils.createInListString(new Object[] {1, "a"}, unbound), "(?, ?)");
+    assertEquals(unbound, Arrays.<Object>asList(1, "a"));
+  }
+
+  @Test
+  public void test_long_in_lists_are_inlined() {
+    Object[] args = new Object[Utils.MAX_IN_PLACEHOLDERS + 5];
+    for (int i = 0; i < args.length; i++) args[i] = (long) i;
+    args[0] = "it's";
+    args[1] = "what?";
+    args[2] = null;
+    args[3] = true;
+    args[4] = new byte[] {0x0F, (byte) 0xA0};
+
+    List<Object> unbound = new ArrayList<>();
+    String list = Utils.createInListString(args, unbound);
+    assertEquals(unbound, Arrays.<Object>asList("what?"));
+    assertEquals(Utils.countOccurrences(list, '?'), 1);
+    assertEquals(list.substring(0, 40), "('it''s', ?, NULL, 1, X'0FA0', 5, 6, 7, ");
+    assertTrue(list.endsWith(", 259, 260)"));
+  }
+
+  @Test
+  public void test_provider_sort_order() {
+    assertNull(Utils.providerSortOrder(null, 0, 0));
+    assertEquals(Utils.providerSortOrder("age ASC", 0, 0), "age ASC");
+    assertEquals(Utils.providerSortOrder(null, 1, 0), "NULL LIMIT 1");
+    assertEquals(Utils.providerSortOrder("age ASC", 20, 40), "age ASC LIMIT 20 OFFSET 40");
+  }
+}
@@ -0,0 +1,16 @@
+package com.afollestad.inquiry;
+
+import com.afollestad.inquiry.annotations.Column;
+import com.afollestad.inquiry.annotations.Table;
+
+/** @author Aidan Follestad (afollestad) */
+@Table
+class TextIdRow {
+
+  public TextIdRow() {}
+
+  @Column(name = "_id")
+  String id;
+
+  @Column String name;
+}
@@ -0,0 +1,96 @@
+package com.afollestad.inquiry;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import java.util.HashMap;
+import java.util.UUID;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/** @author Aidan Follestad (afollestad) */
+@RunWith(MockitoJUnitRunner.class)
+public class TypeAdapterTests extends BaseTest {
+
+  private static class UuidAdapter extends TypeAdapter<UUID> {
+
+    @NonNull
+    @Override
+    public String sqlType() {
+      return TEXT;
+    }
+
+    @Override
+    public UUID read(@NonNull Cursor cursor, int columnIndex) {
+      return UUID.fromString(cursor.getString(columnIndex));
+    }
+
+    @Override
+    public void write(@NonNull RowValues values, @NonNull String columnName, @NonNull UUID value) {
+      values.put(columnName, value.toString());
+    }
+  }
+
+  private TypeAdapterRegistry uuidRegistry() {
+    TypeAdapterRegistry registry = new TypeAdapterRegistry(TypeAdapterRegistry.DEFAULT);
+    registry.register(UUID.class, new UuidAdapter());
+    when(mockInquiry.getTypeAdapters()).thenReturn(registry);
+    return registry;
+  }
+
+  @Test
+  public void test_custom_adapter_to_values() {
+    uuidRegistry();
+    UUID uuid = UUID.randomUUID();
+    RowMapper<UuidRow> mapper = RowMapper.get(mockInquiry, UuidRow.class);
+    RowValues values =
+        mapper.toValues(
+            new UuidRow(uuid, "afollestad"), null, new HashMap<Object, FieldDelegate>());
+
+    assertEquals(values.getString("uuid"), uuid.toString());
+    assertEquals(values.getString("name"), "afollestad");
+  }
+
+  @Test
+  public void test_custom_adapter_from_cursor() {
+    uuidRegistry();
+    UUID uuid = UUID.randomUUID();
+    Cursor mockCursor = mock(Cursor.class);
+    when(mockCursor.getColumnCount()).thenReturn(2);
+    when(mockCursor.getType(0)).thenReturn(Cursor.FIELD_TYPE_STRING);
+    when(mockCursor.getType(1)).thenReturn(Cursor.FIELD_TYPE_STRING);
+    when(mockCursor.getColumnName(0)).thenReturn("uuid");
+    when(mockCursor.getColumnName(1)).thenReturn("name");
+    when(mockCursor.getString(0)).thenReturn(uuid.toString());
+    when(mockCursor.getString(1)).thenReturn("waverlysummer");
+
+    UuidRow row = Converter.cursorToObject(mockQuery, mockCursor, UuidRow.class);
+    assertEquals(row.uuid, uuid);
+    assertEquals(row.name, "waverlysummer");
+  }
+
+  @Test
+  public void test_custom_adapter_drives_schema() {
+    TypeAdapterRegistry registry = uuidRegistry();
+    String schema = Converter.getClassSchema(UuidRow.class, registry);
+    assertTrue(schema.contains("uuid TEXT"));
+    assertTrue(
+        Converter.getClassSchema(UuidRow.class, TypeAdapterRegistry.DEFAULT).contains("uuid BLOB"));
+  }
+
+  @Test
+  public void test_mappers_are_cached_per_registry() {
+    RowMapper<UuidRow> defaultMapper = RowMapper.get(mockInquiry, UuidRow.class);
+    uuidRegistry();
+    RowMapper<UuidRow> customMapper = RowMapper.get(mockInquiry, UuidRow.class);
+    assertNotNull(customMapper);
+    assertNotSame(defaultMapper, customMapper);
+  }
+}
@@ -0,0 +1,23 @@
+package com.afollestad.inquiry;
+
+import com.afollestad.inquiry.annotations.Column;
+import com.afollestad.inquiry.annotations.Table;
+import java.util.UUID;
+
+/** @author Aidan Follestad (afollestad) */
+@Table
+class UuidRow {
+
+  public UuidRow() {}
+
+  UuidRow(UUID uuid, String name) {
+    this.uuid = uuid;
+    this.name = name;
+  }
+
+  @Column(autoIncrement = true, name = "_id", primaryKey = true)
+  long id;
+
+  @Column UUID uuid;
+  @Column String name;
+}